@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.AssemblySafeFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 过滤器链执行的基准测试，比较默认过滤器链与预编译过滤器链
+ * Benchmarks {@link FilteringWebHandler#handle} with pass-through filters, using
+ * either the default per-request chain or the precompiled chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilteringWebHandlerBenchmark {
+
+	@Param({ "5", "20" })
+	public int filters;
+
+	@Param({ "false", "true" })
+	public boolean precompiled;
+
+	private FilteringWebHandler handler;
+
+	private Route route;
+
+	private MockServerHttpRequest request;
+
+	@Setup
+	public void setup() {
+		List<GlobalFilter> globalFilters = new ArrayList<>(this.filters);
+		for (int i = 0; i < this.filters; i++) {
+			// half of the filters need Mono.defer, like most filters in practice
+			globalFilters.add(i % 2 == 0 ? new PassThroughFilter(i) : new AssemblySafePassThroughFilter(i));
+		}
+		this.handler = new FilteringWebHandler(globalFilters);
+		this.handler.setPrecompiledChains(this.precompiled);
+
+		this.route = Route.builder().id("route").uri("http://localhost:8080")
+				.predicate(exchange -> true).build();
+		this.request = MockServerHttpRequest.get("http://localhost/foo").build();
+	}
+
+	@Benchmark
+	public Void handle() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(this.request);
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, this.route);
+		return this.handler.handle(exchange).block();
+	}
+
+	static class PassThroughFilter implements GlobalFilter, Ordered {
+
+		private final int order;
+
+		PassThroughFilter(int order) {
+			this.order = order;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			return chain.filter(exchange);
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+	}
+
+	static class AssemblySafePassThroughFilter extends PassThroughFilter implements AssemblySafeFilter {
+
+		AssemblySafePassThroughFilter(int order) {
+			super(order);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.benchmark;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.headers.CompiledHttpHeadersFilters;
+import org.springframework.cloud.gateway.filter.headers.ForwardedHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.RemoveHopByHopHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.XForwardedHeadersFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * 请求头过滤器的基准测试
+ * Benchmarks the request {@link HttpHeadersFilter}s applied by the routing filters,
+ * one by one, in sequence and as the compiled single copy pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeadersFilterBenchmark {
+
+	/**
+	 * 请求头数量
+	 */
+	@Param({ "5", "30", "60" })
+	public int headers;
+
+	private final XForwardedHeadersFilter xForwarded = new XForwardedHeadersFilter();
+
+	private final ForwardedHeadersFilter forwarded = new ForwardedHeadersFilter();
+
+	private final RemoveHopByHopHeadersFilter removeHopByHop = new RemoveHopByHopHeadersFilter();
+
+	private List<HttpHeadersFilter> all;
+
+	private CompiledHttpHeadersFilters compiled;
+
+	private MockServerWebExchange exchange;
+
+	@Setup
+	public void setup() {
+		this.all = Arrays.asList(this.xForwarded, this.forwarded, this.removeHopByHop);
+		this.compiled = CompiledHttpHeadersFilters.compile(this.all, HttpHeadersFilter.Type.REQUEST);
+
+		MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest
+				.get("http://localhost:8080/foo/bar")
+				.remoteAddress(new InetSocketAddress("10.0.0.1", 54321))
+				.header(HttpHeaders.HOST, "localhost:8080")
+				.header(HttpHeaders.CONNECTION, "keep-alive")
+				.header(XForwardedHeadersFilter.X_FORWARDED_FOR_HEADER, "192.168.0.1")
+				.header("Forwarded", "for=192.168.0.1;proto=https");
+		for (int i = 4; i < this.headers; i++) {
+			builder.header("X-Custom-Header-" + i, "value" + i);
+		}
+		// the filters only read the exchange, so it can be shared
+		this.exchange = MockServerWebExchange.from(builder.build());
+	}
+
+	@Benchmark
+	public HttpHeaders xForwarded() {
+		return this.xForwarded.filter(this.exchange.getRequest().getHeaders(), this.exchange);
+	}
+
+	@Benchmark
+	public HttpHeaders forwarded() {
+		return this.forwarded.filter(this.exchange.getRequest().getHeaders(), this.exchange);
+	}
+
+	@Benchmark
+	public HttpHeaders removeHopByHop() {
+		return this.removeHopByHop.filter(this.exchange.getRequest().getHeaders(), this.exchange);
+	}
+
+	@Benchmark
+	public HttpHeaders filterRequest() {
+		return HttpHeadersFilter.filterRequest(this.all, this.exchange);
+	}
+
+	@Benchmark
+	public HttpHeaders filterRequestOneByOne() {
+		HttpHeaders headers = this.exchange.getRequest().getHeaders();
+		for (HttpHeadersFilter filter : this.all) {
+			headers = filter.filter(headers, this.exchange);
+		}
+		return headers;
+	}
+
+	@Benchmark
+	public HttpHeaders compiledPipeline() {
+		return this.compiled.filter(this.exchange.getRequest().getHeaders(), this.exchange);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.StripPrefixGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 路由定义转换为路由的基准测试
+ * Benchmarks converting {@link RouteDefinition}s into {@link Route}s with
+ * {@link RouteDefinitionRouteLocator}, which binds the arguments of every
+ * predicate and filter definition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteDefinitionRouteLocatorBenchmark {
+
+	@Param({ "1", "100" })
+	public int definitions;
+
+	private RouteDefinitionRouteLocator locator;
+
+	@Setup
+	public void setup() {
+		List<RouteDefinition> routeDefinitions = new ArrayList<>(this.definitions);
+		for (int i = 0; i < this.definitions; i++) {
+			RouteDefinition definition = new RouteDefinition("route" + i + "=http://localhost:8080,"
+					+ "Path=/service" + i + "/**,Method=GET,Host=**.example.org");
+			definition.getFilters().add(new FilterDefinition("AddRequestHeader=X-Request-Foo, Bar"));
+			definition.getFilters().add(new FilterDefinition("RewritePath=/service" + i + "/(?<segment>.*), /${segment}"));
+			definition.getFilters().add(new FilterDefinition("StripPrefix=1"));
+			routeDefinitions.add(definition);
+		}
+
+		List<RoutePredicateFactory> predicates = Arrays.asList(new PathRoutePredicateFactory(),
+				new MethodRoutePredicateFactory(), new HostRoutePredicateFactory());
+		List<GatewayFilterFactory> filters = Arrays.asList(new AddRequestHeaderGatewayFilterFactory(),
+				new RewritePathGatewayFilterFactory(), new StripPrefixGatewayFilterFactory());
+		this.locator = new RouteDefinitionRouteLocator(() -> Flux.fromIterable(routeDefinitions),
+				predicates, filters, new GatewayProperties());
+	}
+
+	@Benchmark
+	public List<Route> convertToRoute() {
+		return this.locator.getRoutes().collectList().block();
+	}
+}
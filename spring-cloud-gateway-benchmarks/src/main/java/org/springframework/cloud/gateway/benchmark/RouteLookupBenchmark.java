@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RouteMatchCache;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 路由查找的基准测试，分别测试线性查找、索引查找及缓存查找
+ * Benchmarks {@link RoutePredicateHandlerMapping#lookupRoute} against route tables
+ * of different sizes. {@code linear} tests every route in order, {@code indexed}
+ * uses the {@link CachingRouteLocator} route index and {@code cached} adds the
+ * {@link RouteMatchCache} on top of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	public int routes;
+
+	@Param({ "linear", "indexed", "cached" })
+	public String mode;
+
+	private LookupHandlerMapping mapping;
+
+	private MockServerHttpRequest first;
+
+	private MockServerHttpRequest last;
+
+	private MockServerHttpRequest miss;
+
+	@Setup
+	public void setup() {
+		PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+		List<Route> routeList = new ArrayList<>(this.routes);
+		for (int i = 0; i < this.routes; i++) {
+			String pattern = "/service" + i + "/**";
+			routeList.add(Route.builder().id("route" + i).uri("http://localhost:8080").order(i)
+					.predicate(factory.apply(c -> c.setPattern(pattern))).build());
+		}
+
+		RouteLocator routeLocator = () -> Flux.fromIterable(routeList);
+		if (!"linear".equals(this.mode)) {
+			routeLocator = new CachingRouteLocator(routeLocator);
+		}
+		this.mapping = new LookupHandlerMapping(routeLocator);
+		if ("cached".equals(this.mode)) {
+			this.mapping.setRouteMatchCache(new RouteMatchCache(10000));
+		}
+
+		this.first = MockServerHttpRequest.get("http://localhost/service0/foo").build();
+		this.last = MockServerHttpRequest.get("http://localhost/service" + (this.routes - 1) + "/foo").build();
+		this.miss = MockServerHttpRequest.get("http://localhost/unknown/foo").build();
+	}
+
+	@Benchmark
+	public Route lookupFirst() {
+		return this.mapping.lookup(MockServerWebExchange.from(this.first)).block();
+	}
+
+	@Benchmark
+	public Route lookupLast() {
+		return this.mapping.lookup(MockServerWebExchange.from(this.last)).block();
+	}
+
+	@Benchmark
+	public Route lookupMiss() {
+		return this.mapping.lookup(MockServerWebExchange.from(this.miss)).block();
+	}
+
+	/**
+	 * 暴露 lookupRoute 方法
+	 */
+	static class LookupHandlerMapping extends RoutePredicateHandlerMapping {
+
+		LookupHandlerMapping(RouteLocator routeLocator) {
+			super(new FilteringWebHandler(Collections.emptyList()), routeLocator);
+		}
+
+		Mono<Route> lookup(ServerWebExchange exchange) {
+			return lookupRoute(exchange);
+		}
+	}
+}
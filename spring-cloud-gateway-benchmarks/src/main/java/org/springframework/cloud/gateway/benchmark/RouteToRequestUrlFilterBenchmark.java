@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.benchmark;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.containsEncodedParts;
+
+/**
+ * 路由请求URL构建的基准测试
+ * Benchmarks building the URL a request is routed to, with the precomputed
+ * {@link org.springframework.cloud.gateway.route.RouteTarget} and with
+ * {@link UriComponentsBuilder} as the {@code RouteToRequestUrlFilter} used to.
+ * Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteToRequestUrlFilterBenchmark {
+
+	@Param({ "http://localhost:8080", "lb://service" })
+	public String routeUri;
+
+	@Param({ "http://localhost/foo/bar?a=b&c=d", "http://localhost/abc%20def/get" })
+	public String requestUri;
+
+	private Route route;
+
+	private URI request;
+
+	@Setup
+	public void setup() {
+		this.route = Route.builder().id("route").uri(this.routeUri)
+				.predicate(exchange -> true).build();
+		this.request = URI.create(this.requestUri);
+	}
+
+	@Benchmark
+	public URI routeTarget() {
+		return this.route.getTarget().toRequestUrl(this.request, containsEncodedParts(this.request));
+	}
+
+	@Benchmark
+	public URI uriComponentsBuilder() {
+		return UriComponentsBuilder.fromUri(this.request)
+				.uri(this.route.getUri())
+				.build(containsEncodedParts(this.request))
+				.toUri();
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.event.WeightDefinedEvent;
+import org.springframework.cloud.gateway.filter.WeightCalculatorWebFilter;
+import org.springframework.cloud.gateway.support.WeightConfig;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 权重计算过滤器的基准测试
+ * Benchmarks {@link WeightCalculatorWebFilter#filter} with a number of weight
+ * groups of four routes each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightCalculatorWebFilterBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int groups;
+
+	private final WebFilterChain chain = exchange -> Mono.empty();
+
+	private WeightCalculatorWebFilter filter;
+
+	private MockServerHttpRequest request;
+
+	@Setup
+	public void setup() {
+		this.filter = new WeightCalculatorWebFilter(null);
+		for (int group = 0; group < this.groups; group++) {
+			for (int route = 0; route < 4; route++) {
+				WeightConfig config = new WeightConfig("group" + group,
+						"group" + group + "route" + route, route + 1);
+				this.filter.onApplicationEvent(new WeightDefinedEvent(this, config));
+			}
+		}
+		this.request = MockServerHttpRequest.get("http://localhost/foo").build();
+	}
+
+	@Benchmark
+	public Void filter() {
+		return this.filter.filter(MockServerWebExchange.from(this.request), this.chain).block();
+	}
+}
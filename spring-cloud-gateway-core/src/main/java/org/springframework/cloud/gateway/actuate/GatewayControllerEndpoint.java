@@ -29,6 +29,8 @@ import org.springframework.boot.actuate.endpoint.web.annotation.RestControllerEn
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.pool.ConnectionPoolStats;
+import org.springframework.cloud.gateway.filter.pool.ConnectionPoolTracker;
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteDefinition;
@@ -63,6 +65,7 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 	private RouteDefinitionWriter routeDefinitionWriter;
 	private RouteLocator routeLocator;
 	private ApplicationEventPublisher publisher;
+	private ConnectionPoolTracker connectionPoolTracker;
 
 	public GatewayControllerEndpoint(RouteDefinitionLocator routeDefinitionLocator, List<GlobalFilter> globalFilters,
 									 List<GatewayFilterFactory> GatewayFilters, RouteDefinitionWriter routeDefinitionWriter,
@@ -79,6 +82,10 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 		this.publisher = publisher;
 	}
 
+	public void setConnectionPoolTracker(ConnectionPoolTracker connectionPoolTracker) {
+		this.connectionPoolTracker = connectionPoolTracker;
+	}
+
 	// TODO: Add uncommited or new but not active routes endpoint
 
 	@PostMapping("/refresh")
@@ -154,6 +161,20 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 		});
 	}
 
+	/**
+	 * 按连接池输出上游连接的统计信息
+	 * @return the statistics of every upstream connection pool, and of its remote addresses when enabled
+	 */
+	@GetMapping("/httpclient/pools")
+	public Mono<List<Map<String, Object>>> connectionPools() {
+		if (this.connectionPoolTracker == null) {
+			return Mono.just(new ArrayList<>());
+		}
+		return Flux.fromIterable(this.connectionPoolTracker.getStats())
+				.map(ConnectionPoolStats::toMap)
+				.collectList();
+	}
+
 /*
 http POST :8080/admin/gateway/routes/apiaddreqhead uri=http://httpbin.org:80 predicates:='["Host=**.apiaddrequestheader.org", "Path=/headers"]' filters:='["AddRequestHeader=X-Request-ApiFoo, ApiBar"]'
 */
@@ -17,9 +17,14 @@
 
 package org.springframework.cloud.gateway.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnEnabledEndpoint;
@@ -34,6 +39,7 @@ import org.springframework.boot.autoconfigure.web.reactive.HttpHandlerAutoConfig
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.cloud.gateway.actuate.GatewayControllerEndpoint;
+import org.springframework.cloud.gateway.discovery.DiscoveryClientRouteDefinitionLocator;
 import org.springframework.cloud.gateway.filter.AdaptCachedBodyGlobalFilter;
 import org.springframework.cloud.gateway.filter.ForwardPathFilter;
 import org.springframework.cloud.gateway.filter.ForwardRoutingFilter;
@@ -46,6 +52,8 @@ import org.springframework.cloud.gateway.filter.WebsocketRoutingFilter;
 import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.AddRequestParameterGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.AddResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.ConnectionPoolGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.FlushPolicyGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.HystrixGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.PrefixPathGatewayFilterFactory;
@@ -71,11 +79,18 @@ import org.springframework.cloud.gateway.filter.headers.ForwardedHeadersFilter;
 import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
 import org.springframework.cloud.gateway.filter.headers.RemoveHopByHopHeadersFilter;
 import org.springframework.cloud.gateway.filter.headers.XForwardedHeadersFilter;
+import org.springframework.cloud.gateway.filter.pool.ConnectionPoolMetrics;
+import org.springframework.cloud.gateway.filter.pool.ConnectionPoolTracker;
+import org.springframework.cloud.gateway.filter.ratelimit.CookieKeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.HeaderKeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.PrincipalNameKeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
 import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RouteMatchCache;
+import org.springframework.cloud.gateway.handler.RouteMatchCacheMetrics;
 import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.RouteWarmup;
 import org.springframework.cloud.gateway.handler.predicate.AfterRoutePredicateFactory;
 import org.springframework.cloud.gateway.handler.predicate.BeforeRoutePredicateFactory;
 import org.springframework.cloud.gateway.handler.predicate.BetweenRoutePredicateFactory;
@@ -99,6 +114,8 @@ import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
 import org.springframework.cloud.gateway.route.RouteDefinitionWriter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.RouteRefreshListener;
+import org.springframework.cloud.gateway.route.RouteRefreshMetrics;
+import org.springframework.cloud.gateway.route.RouteTableMetrics;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -120,6 +137,7 @@ import com.netflix.hystrix.HystrixObservableCommand;
 import static org.springframework.cloud.gateway.config.HttpClientProperties.Pool.PoolType.DISABLED;
 import static org.springframework.cloud.gateway.config.HttpClientProperties.Pool.PoolType.FIXED;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import reactor.core.publisher.Flux;
 import reactor.ipc.netty.http.client.HttpClient;
@@ -149,7 +167,52 @@ public class GatewayAutoConfiguration {
 		}
 
 		@Bean
-		public Consumer<? super HttpClientOptions.Builder> nettyClientOptions(HttpClientProperties properties) {
+		public Consumer<? super HttpClientOptions.Builder> nettyClientOptions(HttpClientProperties properties,
+																			 ConnectionPoolTracker connectionPoolTracker) {
+			return clientOptions(properties, properties.getPool().getName(), properties.getPool(), connectionPoolTracker);
+		}
+
+		@Bean
+		public ConnectionPoolTracker connectionPoolTracker(HttpClientProperties properties) {
+			return new ConnectionPoolTracker(properties.isPoolStatsPerRemoteAddress());
+		}
+
+		/**
+		 * 使用指定的连接池配置构建HttpClient选项，代理及SSL配置共用
+		 * @param properties
+		 * @param poolName
+		 * @param pool
+		 * @param tracker 记录连接池统计信息
+		 * @return
+		 */
+		static Consumer<? super HttpClientOptions.Builder> clientOptions(HttpClientProperties properties,
+				String poolName, HttpClientProperties.Pool pool, ConnectionPoolTracker tracker) {
+			return clientOptions(properties, () -> poolResources(poolName, pool, tracker));
+		}
+
+		/**
+		 * 创建连接池资源，连接池被禁用时返回 null
+		 * @param poolName
+		 * @param pool
+		 * @param tracker 记录连接池统计信息
+		 * @return
+		 */
+		static PoolResources poolResources(String poolName, HttpClientProperties.Pool pool,
+				ConnectionPoolTracker tracker) {
+			if (pool.getType() == DISABLED) {
+				return null;
+			}
+			PoolResources poolResources;
+			if (pool.getType() == FIXED) {
+				poolResources = PoolResources.fixed(poolName, pool.getMaxConnections(), pool.getAcquireTimeout());
+			} else {
+				poolResources = PoolResources.elastic(poolName);
+			}
+			return tracker.instrument(poolName, poolResources);
+		}
+
+		private static Consumer<? super HttpClientOptions.Builder> clientOptions(HttpClientProperties properties,
+				Supplier<PoolResources> poolResources) {
 			return opts -> {
 
 				// configure ssl
@@ -162,17 +225,11 @@ public class GatewayAutoConfiguration {
 				}
 
 				// configure pool resources
-				HttpClientProperties.Pool pool = properties.getPool();
-
-				if (pool.getType() == DISABLED) {
+				PoolResources resources = poolResources.get();
+				if (resources == null) {
 					opts.disablePool();
-				} else if (pool.getType() == FIXED) {
-					PoolResources poolResources = PoolResources.fixed(pool.getName(),
-							pool.getMaxConnections(), pool.getAcquireTimeout());
-					opts.poolResources(poolResources);
 				} else {
-					PoolResources poolResources = PoolResources.elastic(pool.getName());
-					opts.poolResources(poolResources);
+					opts.poolResources(resources);
 				}
 
 
@@ -218,8 +275,23 @@ public class GatewayAutoConfiguration {
 		 */
 		@Bean
 		public NettyRoutingFilter routingFilter(HttpClient httpClient,
-												ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
-			return new NettyRoutingFilter(httpClient, headersFilters);
+												ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+												HttpClientProperties properties,
+												ConnectionPoolTracker connectionPoolTracker) {
+			NettyRoutingFilter routingFilter = new NettyRoutingFilter(httpClient, headersFilters);
+			//为每个连接池配置创建独立的HttpClient，连接池资源随过滤器一起释放
+			Map<String, HttpClient> pooledHttpClients = new LinkedHashMap<>();
+			List<PoolResources> poolResources = new ArrayList<>();
+			properties.getPools().forEach((name, pool) -> {
+				PoolResources resources = poolResources(name, pool, connectionPoolTracker);
+				if (resources != null) {
+					poolResources.add(resources);
+				}
+				pooledHttpClients.put(name, HttpClient.create(clientOptions(properties, () -> resources)));
+			});
+			routingFilter.setPooledHttpClients(pooledHttpClients);
+			routingFilter.setPoolResources(poolResources);
+			return routingFilter;
 		}
 
 		/**
@@ -294,19 +366,49 @@ public class GatewayAutoConfiguration {
 	}
 
 	@Bean
-	public RouteRefreshListener routeRefreshListener(ApplicationEventPublisher publisher) {
-		return new RouteRefreshListener(publisher);
+	public RouteRefreshListener routeRefreshListener(ApplicationEventPublisher publisher, GatewayProperties properties,
+			ObjectProvider<DiscoveryClientRouteDefinitionLocator> discoveryClientRouteDefinitionLocator) {
+		RouteRefreshListener listener = new RouteRefreshListener(publisher);
+		listener.setDebounce(properties.getRouteRefresh().getQuietPeriod(), properties.getRouteRefresh().getMaxDelay());
+		DiscoveryClientRouteDefinitionLocator discoveryLocator = discoveryClientRouteDefinitionLocator.getIfAvailable();
+		if (discoveryLocator != null) {
+			//仅在服务实例变化时刷新路由
+			listener.setHeartbeatRefreshCondition(discoveryLocator::instancesChanged);
+		}
+		return listener;
+	}
+
+	@Bean
+	public FilteringWebHandler filteringWebHandler(List<GlobalFilter> globalFilters, GatewayProperties properties) {
+		FilteringWebHandler filteringWebHandler = new FilteringWebHandler(globalFilters);
+		filteringWebHandler.setPrecompiledChains(properties.getFilterChain().isPrecompiled());
+		filteringWebHandler.setPruneByScheme(properties.getFilterChain().isPruneByScheme());
+		filteringWebHandler.setFusePathRewrites(properties.getFilterChain().isFusePathRewrites());
+		return filteringWebHandler;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.cloud.gateway.route-cache.enabled")
+	public RouteMatchCache routeMatchCache(GatewayProperties properties) {
+		return new RouteMatchCache(properties.getRouteCache().getMaxSize());
 	}
 
 	@Bean
-	public FilteringWebHandler filteringWebHandler(List<GlobalFilter> globalFilters) {
-		return new FilteringWebHandler(globalFilters);
+	@ConditionalOnProperty(name = "spring.cloud.gateway.warmup.enabled")
+	public RouteWarmup routeWarmup(RouteLocator routeLocator, FilteringWebHandler webHandler,
+			ObjectProvider<RouteRefreshListener> routeRefreshListener) {
+		RouteWarmup routeWarmup = new RouteWarmup(routeLocator, webHandler);
+		routeWarmup.setRouteRefreshListener(routeRefreshListener.getIfAvailable());
+		return routeWarmup;
 	}
 
 	@Bean
 	public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
-																	   RouteLocator routeLocator) {
-		return new RoutePredicateHandlerMapping(webHandler, routeLocator);
+																	   RouteLocator routeLocator,
+																	   ObjectProvider<RouteMatchCache> routeMatchCache) {
+		RoutePredicateHandlerMapping handlerMapping = new RoutePredicateHandlerMapping(webHandler, routeLocator);
+		handlerMapping.setRouteMatchCache(routeMatchCache.getIfAvailable());
+		return handlerMapping;
 	}
 
 	// ConfigurationProperty beans
@@ -394,8 +496,21 @@ public class GatewayAutoConfiguration {
 	}
 
 	@Bean
-	public WeightCalculatorWebFilter weightCalculatorWebFilter(Validator validator) {
-		return new WeightCalculatorWebFilter(validator);
+	public WeightCalculatorWebFilter weightCalculatorWebFilter(Validator validator, GatewayProperties properties,
+															   BeanFactory beanFactory) {
+		WeightCalculatorWebFilter filter = new WeightCalculatorWebFilter(validator);
+		GatewayProperties.Weight weight = properties.getWeight();
+		//根据配置的请求头、Cookie或KeyResolver进行粘性路由
+		if (StringUtils.hasText(weight.getStickyKeyResolver())) {
+			filter.setStickyKeyResolver(beanFactory.getBean(weight.getStickyKeyResolver(), KeyResolver.class));
+		}
+		else if (StringUtils.hasText(weight.getStickyHeader())) {
+			filter.setStickyKeyResolver(new HeaderKeyResolver(weight.getStickyHeader()));
+		}
+		else if (StringUtils.hasText(weight.getStickyCookie())) {
+			filter.setStickyKeyResolver(new CookieKeyResolver(weight.getStickyCookie()));
+		}
+		return filter;
 	}
 
 	/*@Bean
@@ -490,6 +605,17 @@ public class GatewayAutoConfiguration {
 		return new AddResponseHeaderGatewayFilterFactory();
 	}
 
+	@Bean
+	public ConnectionPoolGatewayFilterFactory connectionPoolGatewayFilterFactory(
+			ObjectProvider<HttpClientProperties> httpClientProperties) {
+		return new ConnectionPoolGatewayFilterFactory(httpClientProperties.getIfAvailable());
+	}
+
+	@Bean
+	public FlushPolicyGatewayFilterFactory flushPolicyGatewayFilterFactory() {
+		return new FlushPolicyGatewayFilterFactory();
+	}
+
 	@Configuration
 	@ConditionalOnClass({HystrixObservableCommand.class, RxReactiveStreams.class})
 	protected static class HystrixConfiguration {
@@ -596,6 +722,33 @@ public class GatewayAutoConfiguration {
 		return new RequestHeaderToRequestUriGatewayFilterFactory();
 	}
 
+	@Configuration
+	@ConditionalOnClass(MeterRegistry.class)
+	protected static class GatewayMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnProperty(name = "spring.cloud.gateway.route-cache.enabled")
+		public RouteMatchCacheMetrics routeMatchCacheMetrics(RouteMatchCache routeMatchCache) {
+			return new RouteMatchCacheMetrics(routeMatchCache);
+		}
+
+		@Bean
+		public RouteTableMetrics routeTableMetrics(RouteLocator routeLocator) {
+			return new RouteTableMetrics(routeLocator);
+		}
+
+		@Bean
+		public RouteRefreshMetrics routeRefreshMetrics(RouteRefreshListener routeRefreshListener) {
+			return new RouteRefreshMetrics(routeRefreshListener);
+		}
+
+		@Bean
+		@ConditionalOnClass(name = "reactor.ipc.netty.http.client.HttpClient")
+		public ConnectionPoolMetrics connectionPoolMetrics(ConnectionPoolTracker connectionPoolTracker) {
+			return new ConnectionPoolMetrics(connectionPoolTracker);
+		}
+	}
+
 	@Configuration
 	@ConditionalOnClass(Health.class)
 	protected static class GatewayActuatorConfiguration {
@@ -604,8 +757,10 @@ public class GatewayAutoConfiguration {
 		@ConditionalOnEnabledEndpoint
 		public GatewayControllerEndpoint gatewayControllerEndpoint(RouteDefinitionLocator routeDefinitionLocator, List<GlobalFilter> globalFilters,
 																List<GatewayFilterFactory> GatewayFilters, RouteDefinitionWriter routeDefinitionWriter,
-																RouteLocator routeLocator) {
-			return new GatewayControllerEndpoint(routeDefinitionLocator, globalFilters, GatewayFilters, routeDefinitionWriter, routeLocator);
+																RouteLocator routeLocator, ObjectProvider<ConnectionPoolTracker> connectionPoolTracker) {
+			GatewayControllerEndpoint endpoint = new GatewayControllerEndpoint(routeDefinitionLocator, globalFilters, GatewayFilters, routeDefinitionWriter, routeLocator);
+			endpoint.setConnectionPoolTracker(connectionPoolTracker.getIfAvailable());
+			return endpoint;
 		}
 	}
 
@@ -17,6 +17,7 @@
 
 package org.springframework.cloud.gateway.config;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -63,6 +64,42 @@ public class GatewayProperties {
 	private List<MediaType> streamingMediaTypes = Arrays.asList(MediaType.TEXT_EVENT_STREAM,
 			MediaType.APPLICATION_STREAM_JSON);
 
+	/**
+	 * 路由匹配结果缓存配置
+	 * Route match cache configuration.
+	 */
+	private RouteCache routeCache = new RouteCache();
+
+	/**
+	 * 过滤器链配置
+	 * Filter chain configuration.
+	 */
+	private FilterChain filterChain = new FilterChain();
+
+	/**
+	 * 路由编译配置
+	 * Route compilation configuration.
+	 */
+	private RouteCompilation routeCompilation = new RouteCompilation();
+
+	/**
+	 * 启动预热配置
+	 * Startup warmup configuration.
+	 */
+	private Warmup warmup = new Warmup();
+
+	/**
+	 * 路由刷新配置
+	 * Route refresh configuration.
+	 */
+	private RouteRefresh routeRefresh = new RouteRefresh();
+
+	/**
+	 * 权重路由配置
+	 * Weighted routing configuration.
+	 */
+	private Weight weight = new Weight();
+
 	public List<RouteDefinition> getRoutes() {
 		return routes;
 	}
@@ -87,12 +124,288 @@ public class GatewayProperties {
 		this.streamingMediaTypes = streamingMediaTypes;
 	}
 
+	public RouteCache getRouteCache() {
+		return routeCache;
+	}
+
+	public void setRouteCache(RouteCache routeCache) {
+		this.routeCache = routeCache;
+	}
+
+	public FilterChain getFilterChain() {
+		return filterChain;
+	}
+
+	public void setFilterChain(FilterChain filterChain) {
+		this.filterChain = filterChain;
+	}
+
+	public RouteCompilation getRouteCompilation() {
+		return routeCompilation;
+	}
+
+	public void setRouteCompilation(RouteCompilation routeCompilation) {
+		this.routeCompilation = routeCompilation;
+	}
+
+	public Warmup getWarmup() {
+		return warmup;
+	}
+
+	public void setWarmup(Warmup warmup) {
+		this.warmup = warmup;
+	}
+
+	public RouteRefresh getRouteRefresh() {
+		return routeRefresh;
+	}
+
+	public void setRouteRefresh(RouteRefresh routeRefresh) {
+		this.routeRefresh = routeRefresh;
+	}
+
+	public Weight getWeight() {
+		return weight;
+	}
+
+	public void setWeight(Weight weight) {
+		this.weight = weight;
+	}
+
 	@Override
 	public String toString() {
 		return "GatewayProperties{" +
 				"routes=" + routes +
 				", defaultFilters=" + defaultFilters +
 				", streamingMediaTypes=" + streamingMediaTypes +
+				", routeCache=" + routeCache +
+				", filterChain=" + filterChain +
+				", routeCompilation=" + routeCompilation +
+				", warmup=" + warmup +
+				", routeRefresh=" + routeRefresh +
+				", weight=" + weight +
 				'}';
 	}
+
+	public static class RouteCache {
+
+		/** Enables caching of route lookups keyed on method, host and path. */
+		private boolean enabled = false;
+
+		/** Maximum number of cached route lookups, the least recently used lookup is evicted beyond it. */
+		private int maxSize = 10000;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		public String toString() {
+			return "RouteCache{" +
+					"enabled=" + enabled +
+					", maxSize=" + maxSize +
+					'}';
+		}
+	}
+
+	public static class FilterChain {
+
+		/** Uses filter chains built once per route that allocate nothing per request. */
+		private boolean precompiled = false;
+
+		/** Leaves global filters out of the chains of routes whose URI scheme they do not handle. */
+		private boolean pruneByScheme = false;
+
+		/** Fuses consecutive path rewriting filters of a route into one step that mutates the request once. */
+		private boolean fusePathRewrites = false;
+
+		public boolean isPrecompiled() {
+			return precompiled;
+		}
+
+		public void setPrecompiled(boolean precompiled) {
+			this.precompiled = precompiled;
+		}
+
+		public boolean isPruneByScheme() {
+			return pruneByScheme;
+		}
+
+		public void setPruneByScheme(boolean pruneByScheme) {
+			this.pruneByScheme = pruneByScheme;
+		}
+
+		public boolean isFusePathRewrites() {
+			return fusePathRewrites;
+		}
+
+		public void setFusePathRewrites(boolean fusePathRewrites) {
+			this.fusePathRewrites = fusePathRewrites;
+		}
+
+		@Override
+		public String toString() {
+			return "FilterChain{" +
+					"precompiled=" + precompiled +
+					", pruneByScheme=" + pruneByScheme +
+					", fusePathRewrites=" + fusePathRewrites +
+					'}';
+		}
+	}
+
+	public static class RouteCompilation {
+
+		/** Reuses the routes of unchanged route definitions when routes are refreshed. */
+		private boolean incremental = false;
+
+		/** Number of route definitions compiled concurrently, 1 compiles them one after another. */
+		private int parallelism = 1;
+
+		/** Shares one bound config instance between predicates or filters with identical arguments. */
+		private boolean cacheBindings = false;
+
+		public boolean isIncremental() {
+			return incremental;
+		}
+
+		public void setIncremental(boolean incremental) {
+			this.incremental = incremental;
+		}
+
+		public int getParallelism() {
+			return parallelism;
+		}
+
+		public void setParallelism(int parallelism) {
+			this.parallelism = parallelism;
+		}
+
+		public boolean isCacheBindings() {
+			return cacheBindings;
+		}
+
+		public void setCacheBindings(boolean cacheBindings) {
+			this.cacheBindings = cacheBindings;
+		}
+
+		@Override
+		public String toString() {
+			return "RouteCompilation{" +
+					"incremental=" + incremental +
+					", parallelism=" + parallelism +
+					", cacheBindings=" + cacheBindings +
+					'}';
+		}
+	}
+
+	public static class Warmup {
+
+		/** Compiles routes and filter chains before the web server accepts requests. */
+		private boolean enabled = false;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		@Override
+		public String toString() {
+			return "Warmup{" +
+					"enabled=" + enabled +
+					'}';
+		}
+	}
+
+	public static class RouteRefresh {
+
+		/** Time without further triggers after which routes are refreshed, 0 refreshes immediately. */
+		private Duration quietPeriod = Duration.ZERO;
+
+		/** Maximum time between the first coalesced trigger and the refresh. */
+		private Duration maxDelay = Duration.ofSeconds(10);
+
+		public Duration getQuietPeriod() {
+			return quietPeriod;
+		}
+
+		public void setQuietPeriod(Duration quietPeriod) {
+			this.quietPeriod = quietPeriod;
+		}
+
+		public Duration getMaxDelay() {
+			return maxDelay;
+		}
+
+		public void setMaxDelay(Duration maxDelay) {
+			this.maxDelay = maxDelay;
+		}
+
+		@Override
+		public String toString() {
+			return "RouteRefresh{" +
+					"quietPeriod=" + quietPeriod +
+					", maxDelay=" + maxDelay +
+					'}';
+		}
+	}
+
+	public static class Weight {
+
+		/** Request header whose value always selects the same route of a weight group. */
+		private String stickyHeader;
+
+		/** Cookie whose value always selects the same route of a weight group. */
+		private String stickyCookie;
+
+		/** Name of a KeyResolver bean whose key always selects the same route of a weight group. */
+		private String stickyKeyResolver;
+
+		public String getStickyHeader() {
+			return stickyHeader;
+		}
+
+		public void setStickyHeader(String stickyHeader) {
+			this.stickyHeader = stickyHeader;
+		}
+
+		public String getStickyCookie() {
+			return stickyCookie;
+		}
+
+		public void setStickyCookie(String stickyCookie) {
+			this.stickyCookie = stickyCookie;
+		}
+
+		public String getStickyKeyResolver() {
+			return stickyKeyResolver;
+		}
+
+		public void setStickyKeyResolver(String stickyKeyResolver) {
+			this.stickyKeyResolver = stickyKeyResolver;
+		}
+
+		@Override
+		public String toString() {
+			return "Weight{" +
+					"stickyHeader='" + stickyHeader + '\'' +
+					", stickyCookie='" + stickyCookie + '\'' +
+					", stickyKeyResolver='" + stickyKeyResolver + '\'' +
+					'}';
+		}
+	}
 }
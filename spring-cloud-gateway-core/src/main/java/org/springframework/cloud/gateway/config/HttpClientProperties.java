@@ -17,6 +17,9 @@
 
 package org.springframework.cloud.gateway.config;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import reactor.ipc.netty.resources.PoolResources;
 
@@ -35,6 +38,18 @@ public class HttpClientProperties {
 	/** SSL configuration for Netty HttpClient */
 	private Ssl ssl = new Ssl();
 
+	/**
+	 * Named pool profiles that routes can select with the ConnectionPool filter, each
+	 * backed by its own HttpClient and connections.
+	 */
+	private Map<String, Pool> pools = new LinkedHashMap<>();
+
+	/**
+	 * Whether to keep connection pool statistics and meters per remote address
+	 * instead of per pool. Every upstream address then gets its own set of meters.
+	 */
+	private boolean poolStatsPerRemoteAddress = false;
+
 	public Pool getPool() {
 		return pool;
 	}
@@ -59,6 +74,22 @@ public class HttpClientProperties {
 		this.ssl = ssl;
 	}
 
+	public Map<String, Pool> getPools() {
+		return pools;
+	}
+
+	public void setPools(Map<String, Pool> pools) {
+		this.pools = pools;
+	}
+
+	public boolean isPoolStatsPerRemoteAddress() {
+		return poolStatsPerRemoteAddress;
+	}
+
+	public void setPoolStatsPerRemoteAddress(boolean poolStatsPerRemoteAddress) {
+		this.poolStatsPerRemoteAddress = poolStatsPerRemoteAddress;
+	}
+
 	public static class Pool {
 
 		public enum PoolType { ELASTIC, FIXED, DISABLED }
@@ -210,6 +241,8 @@ public class HttpClientProperties {
 		return "HttpClientProperties{" +
 				"pool=" + pool +
 				", proxy=" + proxy +
+				", pools=" + pools +
+				", poolStatsPerRemoteAddress=" + poolStatsPerRemoteAddress +
 				'}';
 	}
 }
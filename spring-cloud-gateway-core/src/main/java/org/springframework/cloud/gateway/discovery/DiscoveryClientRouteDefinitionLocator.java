@@ -18,9 +18,16 @@
 package org.springframework.cloud.gateway.discovery;
 
 import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
@@ -28,9 +35,9 @@ import org.springframework.cloud.gateway.filter.FilterDefinition;
 import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.support.ExpressionCache;
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.util.StringUtils;
 
@@ -53,6 +60,19 @@ public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLoc
 	 * 路由ID前缀
 	 */
 	private final String routeIdPrefix;
+	/**
+	 * 每个服务上次生成的路由定义
+	 * key - serviceId
+	 */
+	private final Map<String, ServiceRoute> serviceRoutes = new ConcurrentHashMap<>();
+	/**
+	 * 生成路由定义时的配置
+	 */
+	private volatile String configuration;
+	/**
+	 * 判断服务实例是否变化时获取的实例列表，由随后的路由刷新直接使用，避免重复获取
+	 */
+	private final AtomicReference<List<ServiceInstances>> prefetched = new AtomicReference<>();
 
 	public DiscoveryClientRouteDefinitionLocator(DiscoveryClient discoveryClient, DiscoveryLocatorProperties properties) {
 		this.discoveryClient = discoveryClient;
@@ -65,7 +85,7 @@ public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLoc
 	}
 
 	/**
-	 * 通过注册中心查找服务组装路由定义信息
+	 * 通过注册中心查找服务组装路由定义信息，服务实例未变化的服务复用上次的路由定义
 	 * @return
 	 */
 	@Override
@@ -75,60 +95,182 @@ public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLoc
 				.withInstanceMethods()
 				.build();
 
-		SpelExpressionParser parser = new SpelExpressionParser();
-		Expression includeExpr = parser.parseExpression(properties.getIncludeExpression());
-		Expression urlExpr = parser.parseExpression(properties.getUrlExpression());
-
-		return Flux.fromIterable(discoveryClient.getServices())
-				.map(discoveryClient::getInstances)
-				.filter(instances -> !instances.isEmpty())
-				.map(instances -> instances.get(0))
-				.filter(instance -> {
-					Boolean include = includeExpr.getValue(evalCtxt, instance, Boolean.class);
-					if (include == null) {
-						return false;
-					}
-					return include;
-				})
-				.map(instance -> {
-					String serviceId = instance.getServiceId();
-
-                    RouteDefinition routeDefinition = new RouteDefinition();
-                    routeDefinition.setId(this.routeIdPrefix + serviceId);
-					String uri = urlExpr.getValue(evalCtxt, instance, String.class);
-					routeDefinition.setUri(URI.create(uri));
-
-					final ServiceInstance instanceForEval = new DelegatingServiceInstance(instance, properties);
-
-					for (PredicateDefinition original : this.properties.getPredicates()) {
-						PredicateDefinition predicate = new PredicateDefinition();
-						predicate.setName(original.getName());
-						for (Map.Entry<String, String> entry : original.getArgs().entrySet()) {
-							String value = getValueFromExpr(evalCtxt, parser, instanceForEval, entry);
-							predicate.addArg(entry.getKey(), value);
+		ExpressionCache expressions = ExpressionCache.shared();
+		Expression includeExpr = expressions.getExpression(properties.getIncludeExpression());
+		Expression urlExpr = expressions.getExpression(properties.getUrlExpression());
+
+		return Flux.defer(() -> {
+			//配置变化时所有服务的路由定义都需要重新生成
+			String configuration = this.properties.toString();
+			if (!configuration.equals(this.configuration)) {
+				this.serviceRoutes.clear();
+				this.configuration = configuration;
+			}
+			Set<String> serviceIds = ConcurrentHashMap.newKeySet();
+			List<ServiceInstances> prefetched = this.prefetched.getAndSet(null);
+			Flux<ServiceInstances> services = prefetched != null ? Flux.fromIterable(prefetched) : fetchInstances();
+			return services
+					.map(service -> {
+						serviceIds.add(service.serviceId);
+						ServiceRoute cached = this.serviceRoutes.get(service.serviceId);
+						if (cached != null && cached.fingerprint.equals(service.fingerprint)) {
+							return cached;
 						}
-						routeDefinition.getPredicates().add(predicate);
-					}
-
-                    for (FilterDefinition original : this.properties.getFilters()) {
-                    	FilterDefinition filter = new FilterDefinition();
-                    	filter.setName(original.getName());
-						for (Map.Entry<String, String> entry : original.getArgs().entrySet()) {
-							String value = getValueFromExpr(evalCtxt, parser, instanceForEval, entry);
-							filter.addArg(entry.getKey(), value);
+						RouteDefinition routeDefinition = null;
+						if (!service.instances.isEmpty()) {
+							ServiceInstance instance = service.instances.get(0);
+							if (include(includeExpr, evalCtxt, instance)) {
+								routeDefinition = createRouteDefinition(urlExpr, evalCtxt, instance);
+							}
 						}
-						routeDefinition.getFilters().add(filter);
-					}
+						ServiceRoute serviceRoute = new ServiceRoute(service.fingerprint, routeDefinition);
+						this.serviceRoutes.put(service.serviceId, serviceRoute);
+						return serviceRoute;
+					})
+					.filter(serviceRoute -> serviceRoute.routeDefinition != null)
+					.map(serviceRoute -> serviceRoute.routeDefinition)
+					//移除已下线的服务
+					.doOnComplete(() -> this.serviceRoutes.keySet().retainAll(serviceIds));
+		});
+	}
 
-                    return routeDefinition;
-				});
+	/**
+	 * 判断注册中心的服务实例自上次生成路由定义后是否发生变化，不阻塞调用线程。
+	 * 发生变化时获取到的实例列表由下一次 {@link #getRouteDefinitions()} 直接使用
+	 * @return whether the instances changed since the route definitions were last created
+	 */
+	public Mono<Boolean> instancesChanged() {
+		return Mono.defer(() -> {
+			if (!this.properties.toString().equals(this.configuration)) {
+				return Mono.just(true);
+			}
+			return fetchInstances().collectList().map(services -> {
+				boolean changed = instancesChanged(services);
+				this.prefetched.set(changed ? services : null);
+				return changed;
+			});
+		});
 	}
 
-	String getValueFromExpr(SimpleEvaluationContext evalCtxt, SpelExpressionParser parser, ServiceInstance instance, Map.Entry<String, String> entry) {
-		Expression valueExpr = parser.parseExpression(entry.getValue());
+	private boolean instancesChanged(List<ServiceInstances> services) {
+		Map<String, ServiceRoute> serviceRoutes = new HashMap<>(this.serviceRoutes);
+		if (services.size() != serviceRoutes.size()) {
+			return true;
+		}
+		for (ServiceInstances service : services) {
+			ServiceRoute serviceRoute = serviceRoutes.get(service.serviceId);
+			if (serviceRoute == null || !serviceRoute.fingerprint.equals(service.fingerprint)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取所有服务的实例，fetchConcurrency大于1时在弹性调度器上并发获取，保持服务的顺序
+	 * @return
+	 */
+	private Flux<ServiceInstances> fetchInstances() {
+		Flux<String> services = Flux.fromIterable(discoveryClient.getServices());
+		int concurrency = this.properties.getFetchConcurrency();
+		if (concurrency <= 1) {
+			return services.map(this::getInstances);
+		}
+		return services.flatMapSequential(serviceId -> Mono.fromCallable(() -> getInstances(serviceId))
+				.subscribeOn(Schedulers.elastic()), concurrency);
+	}
+
+	private ServiceInstances getInstances(String serviceId) {
+		return new ServiceInstances(serviceId, discoveryClient.getInstances(serviceId));
+	}
+
+	private boolean include(Expression includeExpr, SimpleEvaluationContext evalCtxt, ServiceInstance instance) {
+		Boolean include = includeExpr.getValue(evalCtxt, instance, Boolean.class);
+		if (include == null) {
+			return false;
+		}
+		return include;
+	}
+
+	private RouteDefinition createRouteDefinition(Expression urlExpr, SimpleEvaluationContext evalCtxt,
+												  ServiceInstance instance) {
+		String serviceId = instance.getServiceId();
+
+		RouteDefinition routeDefinition = new RouteDefinition();
+		routeDefinition.setId(this.routeIdPrefix + serviceId);
+		String uri = urlExpr.getValue(evalCtxt, instance, String.class);
+		routeDefinition.setUri(URI.create(uri));
+
+		final ServiceInstance instanceForEval = new DelegatingServiceInstance(instance, properties);
+
+		for (PredicateDefinition original : this.properties.getPredicates()) {
+			PredicateDefinition predicate = new PredicateDefinition();
+			predicate.setName(original.getName());
+			for (Map.Entry<String, String> entry : original.getArgs().entrySet()) {
+				String value = getValueFromExpr(evalCtxt, instanceForEval, entry);
+				predicate.addArg(entry.getKey(), value);
+			}
+			routeDefinition.getPredicates().add(predicate);
+		}
+
+		for (FilterDefinition original : this.properties.getFilters()) {
+			FilterDefinition filter = new FilterDefinition();
+			filter.setName(original.getName());
+			for (Map.Entry<String, String> entry : original.getArgs().entrySet()) {
+				String value = getValueFromExpr(evalCtxt, instanceForEval, entry);
+				filter.addArg(entry.getKey(), value);
+			}
+			routeDefinition.getFilters().add(filter);
+		}
+
+		return routeDefinition;
+	}
+
+	String getValueFromExpr(SimpleEvaluationContext evalCtxt, ServiceInstance instance, Map.Entry<String, String> entry) {
+		Expression valueExpr = ExpressionCache.shared().getExpression(entry.getValue());
 		return valueExpr.getValue(evalCtxt, instance, String.class);
 	}
 
+	/**
+	 * 服务的实例列表及其标识
+	 */
+	private static class ServiceInstances {
+
+		private final String serviceId;
+
+		private final List<ServiceInstance> instances;
+
+		private final String fingerprint;
+
+		ServiceInstances(String serviceId, List<ServiceInstance> instances) {
+			this.serviceId = serviceId;
+			this.instances = instances;
+			StringBuilder fingerprint = new StringBuilder();
+			for (ServiceInstance instance : instances) {
+				fingerprint.append(instance.getServiceId()).append('|')
+						.append(instance.getHost()).append(':').append(instance.getPort()).append('|')
+						.append(instance.isSecure()).append('|')
+						.append(instance.getMetadata()).append(';');
+			}
+			this.fingerprint = fingerprint.toString();
+		}
+	}
+
+	/**
+	 * 服务的路由定义，服务不包含在网关中时路由定义为 null
+	 */
+	private static class ServiceRoute {
+
+		private final String fingerprint;
+
+		private final RouteDefinition routeDefinition;
+
+		ServiceRoute(String fingerprint, RouteDefinition routeDefinition) {
+			this.fingerprint = fingerprint;
+			this.routeDefinition = routeDefinition;
+		}
+	}
+
 	private static class DelegatingServiceInstance implements ServiceInstance {
 
 		final ServiceInstance delegate;
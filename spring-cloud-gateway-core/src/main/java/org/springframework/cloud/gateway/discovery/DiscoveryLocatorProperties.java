@@ -54,6 +54,12 @@ public class DiscoveryLocatorProperties {
 	 */
 	private boolean lowerCaseServiceId = false;
 
+	/**
+	 * Number of services whose instances are fetched concurrently, defaults to 1.
+	 * Useful with discovery clients whose getInstances calls block on the network.
+	 */
+	private int fetchConcurrency = 1;
+
 	private List<PredicateDefinition> predicates = new ArrayList<>();
 
 	private List<FilterDefinition> filters = new ArrayList<>();
@@ -98,6 +104,14 @@ public class DiscoveryLocatorProperties {
 		this.lowerCaseServiceId = lowerCaseServiceId;
 	}
 
+	public int getFetchConcurrency() {
+		return fetchConcurrency;
+	}
+
+	public void setFetchConcurrency(int fetchConcurrency) {
+		this.fetchConcurrency = fetchConcurrency;
+	}
+
 	public List<PredicateDefinition> getPredicates() {
 		return predicates;
 	}
@@ -122,6 +136,7 @@ public class DiscoveryLocatorProperties {
 				.append("includeExpression", includeExpression)
 				.append("urlExpression", urlExpression)
 				.append("lowerCaseServiceId", lowerCaseServiceId)
+				.append("fetchConcurrency", fetchConcurrency)
 				.append("predicates", predicates)
 				.append("filters", filters)
 				.toString();
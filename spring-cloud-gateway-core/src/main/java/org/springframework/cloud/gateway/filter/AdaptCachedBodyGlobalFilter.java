@@ -27,7 +27,7 @@ import reactor.core.publisher.Mono;
 /**
  * 请求体缓存过滤器
  */
-public class AdaptCachedBodyGlobalFilter implements GlobalFilter, Ordered {
+public class AdaptCachedBodyGlobalFilter implements GlobalFilter, Ordered, AssemblySafeFilter {
 
 	public static final String CACHED_REQUEST_BODY_KEY = "cachedRequestBody";
 
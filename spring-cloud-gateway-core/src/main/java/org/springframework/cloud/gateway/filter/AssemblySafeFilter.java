@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+/**
+ * 可直接组装的过滤器标记接口，过滤器链调用时无需使用 Mono.defer 包装
+ * Marker for {@link GatewayFilter} and {@link GlobalFilter} implementations
+ * whose {@code filter} method can safely be invoked eagerly: it has no side
+ * effects other than idempotent exchange mutations and does not depend on being
+ * re-invoked when the returned {@code Mono} is subscribed again.
+ * The precompiled filter chain of
+ * {@link org.springframework.cloud.gateway.handler.FilteringWebHandler} does not
+ * wrap such filters in {@code Mono.defer}.
+ */
+public interface AssemblySafeFilter {
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.Assert;
+
+/**
+ * 代理请求及响应报文的刷新策略，将报文分组，每组写完后刷新一次
+ * Decides when {@link NettyRoutingFilter} and {@link NettyWriteResponseFilter} flush the
+ * proxied request and response bodies. The body is split into groups and the connection
+ * is flushed once after each group has been written. A route selects a policy by putting
+ * it in the {@link org.springframework.cloud.gateway.support.ServerWebExchangeUtils#FLUSH_POLICY_ATTR}
+ * attribute, see {@link org.springframework.cloud.gateway.filter.factory.FlushPolicyGatewayFilterFactory}.
+ */
+public interface FlushPolicy {
+
+	/**
+	 * 将报文分组
+	 * @param body the body to write
+	 * @param eventLoop the event loop of the upstream connection
+	 * @param <T> the type of buffers
+	 * @return the groups to write, each followed by a flush
+	 */
+	<T extends DataBuffer> Flux<Flux<T>> group(Flux<T> body, Executor eventLoop);
+
+	/**
+	 * 每个数据块写入后刷新
+	 * @return a policy flushing after every buffer
+	 */
+	static FlushPolicy onEach() {
+		return OnEach.INSTANCE;
+	}
+
+	/**
+	 * 累计写入的字节数达到阈值后刷新
+	 * @param threshold the number of bytes to write before flushing
+	 * @return a policy flushing once the written bytes reach the threshold
+	 */
+	static FlushPolicy onSize(int threshold) {
+		Assert.isTrue(threshold > 0, "threshold must be greater than 0");
+		return new OnSize(threshold);
+	}
+
+	/**
+	 * 合并同一次事件循环中到达的数据块，在事件循环空闲时刷新
+	 * @return a policy coalescing buffers written within one event loop iteration
+	 */
+	static FlushPolicy onIdleTick() {
+		return OnIdleTick.INSTANCE;
+	}
+
+	final class OnEach implements FlushPolicy {
+
+		private static final OnEach INSTANCE = new OnEach();
+
+		private OnEach() {}
+
+		@Override
+		public <T extends DataBuffer> Flux<Flux<T>> group(Flux<T> body, Executor eventLoop) {
+			return body.map(Flux::just);
+		}
+
+		@Override
+		public String toString() {
+			return "FlushPolicy.onEach()";
+		}
+	}
+
+	final class OnSize implements FlushPolicy {
+
+		private final int threshold;
+
+		private OnSize(int threshold) {
+			this.threshold = threshold;
+		}
+
+		@Override
+		public <T extends DataBuffer> Flux<Flux<T>> group(Flux<T> body, Executor eventLoop) {
+			return Flux.defer(() -> {
+				long[] pending = new long[1];
+				return body.windowUntil(buffer -> {
+					pending[0] += buffer.readableByteCount();
+					if (pending[0] >= this.threshold) {
+						pending[0] = 0;
+						return true;
+					}
+					return false;
+				});
+			});
+		}
+
+		@Override
+		public String toString() {
+			return "FlushPolicy.onSize(" + this.threshold + ")";
+		}
+	}
+
+	/**
+	 * 每个数据块到达时在事件循环中提交一次刷新任务，任务执行前到达的数据块合并为一组
+	 */
+	final class OnIdleTick implements FlushPolicy {
+
+		private static final OnIdleTick INSTANCE = new OnIdleTick();
+
+		private OnIdleTick() {}
+
+		@Override
+		public <T extends DataBuffer> Flux<Flux<T>> group(Flux<T> body, Executor eventLoop) {
+			return Flux.defer(() -> {
+				DirectProcessor<Boolean> ticks = DirectProcessor.create();
+				AtomicBoolean scheduled = new AtomicBoolean();
+				Runnable tick = () -> {
+					scheduled.set(false);
+					ticks.onNext(Boolean.TRUE);
+				};
+				return body.doOnNext(buffer -> {
+					if (scheduled.compareAndSet(false, true)) {
+						eventLoop.execute(tick);
+					}
+				}).window(ticks);
+			});
+		}
+
+		@Override
+		public String toString() {
+			return "FlushPolicy.onIdleTick()";
+		}
+	}
+}
@@ -32,7 +32,7 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.i
  * <code>forward</code>.
  * @author Ryan Baxter
  */
-public class ForwardPathFilter implements GlobalFilter, Ordered{
+public class ForwardPathFilter implements GlobalFilter, Ordered, AssemblySafeFilter {
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		//获取当前请求上下文的路由信息
@@ -1,6 +1,8 @@
 package org.springframework.cloud.gateway.filter;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -14,7 +16,9 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.s
 
 import reactor.core.publisher.Mono;
 
-public class ForwardRoutingFilter implements GlobalFilter, Ordered {
+public class ForwardRoutingFilter implements GlobalFilter, Ordered, SchemeAwareFilter {
+
+	private static final Set<String> ROUTE_SCHEMES = Collections.singleton("forward");
 
 	private static final Log log = LogFactory.getLog(ForwardRoutingFilter.class);
 
@@ -29,6 +33,11 @@ public class ForwardRoutingFilter implements GlobalFilter, Ordered {
 		return Ordered.LOWEST_PRECEDENCE;
 	}
 
+	@Override
+	public Set<String> getRouteSchemes() {
+		return ROUTE_SCHEMES;
+	}
+
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		URI requestUrl = exchange.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
@@ -18,7 +18,9 @@
 package org.springframework.cloud.gateway.filter;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,7 +42,7 @@ import reactor.core.publisher.Mono;
  * @author Spencer Gibb
  * @author Tim Ysewyn
  */
-public class LoadBalancerClientFilter implements GlobalFilter, Ordered {
+public class LoadBalancerClientFilter implements GlobalFilter, Ordered, SchemeAwareFilter {
 
 	private static final Log log = LogFactory.getLog(LoadBalancerClientFilter.class);
 	/**
@@ -48,6 +50,8 @@ public class LoadBalancerClientFilter implements GlobalFilter, Ordered {
 	 */
 	public static final int LOAD_BALANCER_CLIENT_FILTER_ORDER = 10100;
 
+	private static final Set<String> ROUTE_SCHEMES = Collections.singleton("lb");
+
 	/**
 	 * 负载均衡客户端
 	 */
@@ -62,6 +66,11 @@ public class LoadBalancerClientFilter implements GlobalFilter, Ordered {
 		return LOAD_BALANCER_CLIENT_FILTER_ORDER;
 	}
 
+	@Override
+	public Set<String> getRouteSchemes() {
+		return ROUTE_SCHEMES;
+	}
+
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		//获取当前请求的路由的url属性
@@ -18,16 +18,27 @@
 package org.springframework.cloud.gateway.filter;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
-import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.ipc.netty.NettyPipeline;
 import reactor.ipc.netty.http.client.HttpClient;
 import reactor.ipc.netty.http.client.HttpClientRequest;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.headers.CompiledHttpHeadersFilters;
 import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
 import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
 import org.springframework.core.Ordered;
@@ -39,8 +50,9 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 
-import static org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.filterRequest;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CONNECTION_POOL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.FLUSH_POLICY_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
@@ -52,22 +64,70 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.s
  * @author Spencer Gibb
  * @author Biju Kunjummen
  */
-public class NettyRoutingFilter implements GlobalFilter, Ordered {
+public class NettyRoutingFilter implements GlobalFilter, Ordered, SchemeAwareFilter, DisposableBean {
+
+	/**
+	 * 适用的路由scheme，lb 路由经负载均衡后转换为 http 或 https
+	 */
+	static final Set<String> ROUTE_SCHEMES = Collections.unmodifiableSet(
+			new HashSet<>(Arrays.asList("http", "https", "lb")));
 
 	private final HttpClient httpClient;
+
+	/**
+	 * 按连接池配置名称隔离的HttpClient
+	 */
+	private Map<String, HttpClient> pooledHttpClients = Collections.emptyMap();
+	/**
+	 * 连接池配置对应的连接池资源，随当前过滤器一起释放
+	 */
+	private List<Disposable> poolResources = Collections.emptyList();
 	private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
 
+	/**
+	 * 首次使用时编译的请求头过滤器
+	 */
+	private volatile CompiledHttpHeadersFilters requestHeadersFilters;
+
+	private volatile CompiledHttpHeadersFilters responseHeadersFilters;
+
 	public NettyRoutingFilter(HttpClient httpClient,
 			ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
 		this.httpClient = httpClient;
 		this.headersFilters = headersFilters;
 	}
 
+	/**
+	 * 设置各连接池配置对应的HttpClient，路由通过 {@link org.springframework.cloud.gateway.support.ServerWebExchangeUtils#CONNECTION_POOL_ATTR} 选择
+	 * @param pooledHttpClients
+	 */
+	public void setPooledHttpClients(Map<String, HttpClient> pooledHttpClients) {
+		this.pooledHttpClients = pooledHttpClients;
+	}
+
+	/**
+	 * 设置连接池配置对应的HttpClient使用的连接池资源，销毁当前过滤器时释放
+	 * @param poolResources
+	 */
+	public void setPoolResources(Collection<? extends Disposable> poolResources) {
+		this.poolResources = new ArrayList<>(poolResources);
+	}
+
+	@Override
+	public void destroy() {
+		this.poolResources.forEach(Disposable::dispose);
+	}
+
 	@Override
 	public int getOrder() {
 		return Ordered.LOWEST_PRECEDENCE;
 	}
 
+	@Override
+	public Set<String> getRouteSchemes() {
+		return ROUTE_SCHEMES;
+	}
+
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		URI requestUrl = exchange.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
@@ -86,12 +146,11 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 		//获取路由的URI信息
 		final String url = requestUrl.toString();
 
-		//获取请求的header信息
-		HttpHeaders filtered = filterRequest(this.headersFilters.getIfAvailable(),
-				exchange);
-
-		final DefaultHttpHeaders httpHeaders = new DefaultHttpHeaders();
-		filtered.forEach(httpHeaders::set);
+		//获取请求的header信息，只移除请求头的过滤器在复制时执行
+		final CompiledHttpHeadersFilters requestFilters = getRequestHeadersFilters();
+		final boolean removingOnly = requestFilters.isRemovingOnly();
+		final HttpHeaders filtered = removingOnly ? request.getHeaders()
+				: requestFilters.filter(request.getHeaders(), exchange);
 
 		//获取header TRANSFER_ENCODING
 		String transferEncoding = request.getHeaders().getFirst(HttpHeaders.TRANSFER_ENCODING);
@@ -99,15 +158,31 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 
 		boolean preserveHost = exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false);
 
-		//通过httpClient发送请求信息
-		return this.httpClient.request(method, url, req -> {
+		//路由配置的报文刷新策略，未配置时每个数据块写入后刷新
+		final FlushPolicy flushPolicy = exchange.getAttribute(FLUSH_POLICY_ATTR);
+
+		//通过路由选择的httpClient发送请求信息
+		return getHttpClient(exchange).request(method, url, req -> {
 			//构建HttpClientRequest 请求
-			final HttpClientRequest proxyRequest = req.options(NettyPipeline.SendOptions::flushOnEach)
-					.headers(httpHeaders)
-					.chunkedTransfer(chunkedTransfer)
+			final HttpClientRequest proxyRequest = (flushPolicy == null
+					? req.options(NettyPipeline.SendOptions::flushOnEach) : req)
 					.failOnServerError(false)
 					.failOnClientError(false);
 
+			//直接写入代理请求的header，保留客户端设置的host
+			io.netty.handler.codec.http.HttpHeaders proxyHeaders = proxyRequest.requestHeaders();
+			String clientHost = proxyHeaders.get(HttpHeaderNames.HOST);
+			proxyHeaders.clear();
+			filtered.forEach((name, values) -> {
+				if (!removingOnly || !requestFilters.removes(name)) {
+					proxyHeaders.set(name, values);
+				}
+			});
+			if (clientHost != null) {
+				proxyHeaders.set(HttpHeaderNames.HOST, clientHost);
+			}
+			proxyRequest.chunkedTransfer(chunkedTransfer);
+
 			//设置代理的host信息
 			if (preserveHost) {
 				String host = request.getHeaders().getFirst(HttpHeaders.HOST);
@@ -115,22 +190,46 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 			}
 
 			//发送请求
-			return proxyRequest.sendHeaders() //I shouldn't need this
-					.send(request.getBody().map(dataBuffer ->
-							((NettyDataBuffer)dataBuffer).getNativeBuffer()));
+			if (flushPolicy == null) {
+				return proxyRequest.sendHeaders() //I shouldn't need this
+						.send(request.getBody().map(dataBuffer ->
+								((NettyDataBuffer)dataBuffer).getNativeBuffer()));
+			}
+			//每组数据写完后刷新一次
+			Executor eventLoop = proxyRequest.context().channel().eventLoop();
+			return proxyRequest.sendHeaders()
+					.sendGroups(flushPolicy.group(request.getBody(), eventLoop)
+							.map(group -> group.map(dataBuffer ->
+									((NettyDataBuffer)dataBuffer).getNativeBuffer())));
 		}).doOnNext(res -> {
 			//获取请求的原始响应信息
 			ServerHttpResponse response = exchange.getResponse();
 			//构建响应header
 			// put headers and status so filters can modify the response
-			HttpHeaders headers = new HttpHeaders();
-			//从res响应中读取header信息构建新的返回响应header
-			res.responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
-
-			HttpHeaders filteredResponseHeaders = HttpHeadersFilter.filter(
-					this.headersFilters.getIfAvailable(), headers, exchange, Type.RESPONSE);
-			//添加header到请求原始响应中
-			response.getHeaders().putAll(filteredResponseHeaders);
+			HttpHeaders responseHeaders = response.getHeaders();
+			CompiledHttpHeadersFilters responseFilters = getResponseHeadersFilters();
+			if (responseFilters.isRemovingOnly()) {
+				//直接从res响应复制header，与 putAll 一样替换已有的同名header
+				io.netty.handler.codec.http.HttpHeaders nettyHeaders = res.responseHeaders();
+				for (Map.Entry<String, String> entry : nettyHeaders) {
+					if (!responseFilters.removes(entry.getKey())) {
+						responseHeaders.remove(entry.getKey());
+					}
+				}
+				for (Map.Entry<String, String> entry : nettyHeaders) {
+					if (!responseFilters.removes(entry.getKey())) {
+						responseHeaders.add(entry.getKey(), entry.getValue());
+					}
+				}
+			} else {
+				HttpHeaders headers = new HttpHeaders();
+				//从res响应中读取header信息构建新的返回响应header
+				res.responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+
+				HttpHeaders filteredResponseHeaders = responseFilters.filter(headers, exchange);
+				//添加header到请求原始响应中
+				responseHeaders.putAll(filteredResponseHeaders);
+			}
 			//获取res响应的响应状态
 			HttpStatus status = HttpStatus.resolve(res.status().code());
 			//设置原始响应的状态
@@ -149,4 +248,35 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 			exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, res);
 		}).then(chain.filter(exchange));
 	}
+
+	/* for testing */ HttpClient getHttpClient(ServerWebExchange exchange) {
+		String pool = exchange.getAttribute(CONNECTION_POOL_ATTR);
+		if (pool == null) {
+			return this.httpClient;
+		}
+		HttpClient httpClient = this.pooledHttpClients.get(pool);
+		if (httpClient == null) {
+			throw new IllegalStateException("Unable to find connection pool " + pool
+					+ ", configure it with spring.cloud.gateway.httpclient.pools." + pool);
+		}
+		return httpClient;
+	}
+
+	private CompiledHttpHeadersFilters getRequestHeadersFilters() {
+		CompiledHttpHeadersFilters filters = this.requestHeadersFilters;
+		if (filters == null) {
+			filters = CompiledHttpHeadersFilters.compile(this.headersFilters.getIfAvailable(), Type.REQUEST);
+			this.requestHeadersFilters = filters;
+		}
+		return filters;
+	}
+
+	private CompiledHttpHeadersFilters getResponseHeadersFilters() {
+		CompiledHttpHeadersFilters filters = this.responseHeadersFilters;
+		if (filters == null) {
+			filters = CompiledHttpHeadersFilters.compile(this.headersFilters.getIfAvailable(), Type.RESPONSE);
+			this.responseHeadersFilters = filters;
+		}
+		return filters;
+	}
 }
@@ -18,6 +18,8 @@
 package org.springframework.cloud.gateway.filter;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,12 +36,13 @@ import org.springframework.lang.Nullable;
 import org.springframework.web.server.ServerWebExchange;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.FLUSH_POLICY_ATTR;
 
 /**
  * netty HttpClient客户端响应报文写入原始响应的过滤器
  * @author Spencer Gibb
  */
-public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
+public class NettyWriteResponseFilter implements GlobalFilter, Ordered, SchemeAwareFilter {
 
 	private static final Log log = LogFactory.getLog(NettyWriteResponseFilter.class);
 
@@ -56,6 +59,12 @@ public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
 		return WRITE_RESPONSE_FILTER_ORDER;
 	}
 
+	@Override
+	public Set<String> getRouteSchemes() {
+		//只处理 NettyRoutingFilter 的响应
+		return NettyRoutingFilter.ROUTE_SCHEMES;
+	}
+
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		// NOTICE: nothing in "pre" filter stage as CLIENT_RESPONSE_ATTR is not added
@@ -80,6 +89,13 @@ public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
 					.retain() //TODO: needed?
 					.map(factory::wrap);
 
+			//按路由配置的刷新策略分组写入，每组写完后刷新一次
+			FlushPolicy flushPolicy = exchange.getAttribute(FLUSH_POLICY_ATTR);
+			if (flushPolicy != null) {
+				Executor eventLoop = clientResponse.context().channel().eventLoop();
+				return response.writeAndFlushWith(flushPolicy.group(body, eventLoop));
+			}
+
 			//获取媒体类型
 			MediaType contentType = response.getHeaders().getContentType();
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * 仅修改请求路径的路由过滤器，连续的此类过滤器可合并为一次请求修改
+ * A {@link GatewayFilter} that only rewrites the request path.
+ * {@link org.springframework.cloud.gateway.handler.FilteringWebHandler} may fuse
+ * consecutive path rewrites of a route into one step that mutates the request once.
+ */
+public interface PathRewriteFilter extends GatewayFilter {
+
+	/**
+	 * 计算新的请求路径
+	 * @param exchange the current exchange
+	 * @param rawPath the raw path of the request, as rewritten by preceding fused filters
+	 * @return the new raw path, or {@code null} to leave the path unchanged
+	 */
+	String rewritePath(ServerWebExchange exchange, String rawPath);
+
+	@Override
+	default Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		ServerHttpRequest req = exchange.getRequest();
+		String newPath = rewritePath(exchange, req.getURI().getRawPath());
+		if (newPath == null) {
+			return chain.filter(exchange);
+		}
+		//保存原始URI到上下文环境中
+		addOriginalRequestUrl(exchange, req.getURI());
+
+		ServerHttpRequest request = req.mutate()
+				.path(newPath)
+				.build();
+
+		exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, request.getURI());
+
+		return chain.filter(exchange.mutate().request(request).build());
+	}
+}
@@ -18,14 +18,13 @@
 package org.springframework.cloud.gateway.filter;
 
 import java.net.URI;
-import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteTarget;
 import org.springframework.core.Ordered;
 import org.springframework.web.server.ServerWebExchange;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
@@ -38,13 +37,11 @@ import reactor.core.publisher.Mono;
  * 路由的路径转换过滤器
  * @author Spencer Gibb
  */
-public class RouteToRequestUrlFilter implements GlobalFilter, Ordered {
+public class RouteToRequestUrlFilter implements GlobalFilter, Ordered, AssemblySafeFilter {
 
 	private static final Log log = LogFactory.getLog(RouteToRequestUrlFilter.class);
 
 	public static final int ROUTE_TO_URL_FILTER_ORDER = 10000;
-	private static final String SCHEME_REGEX = "[a-zA-Z]([a-zA-Z]|\\d|\\+|\\.|-)*:.*";
-	static final Pattern schemePattern = Pattern.compile(SCHEME_REGEX);
 
 	@Override
 	public int getOrder() {
@@ -62,29 +59,22 @@ public class RouteToRequestUrlFilter implements GlobalFilter, Ordered {
 		//获取请求URI信息
 		URI uri = exchange.getRequest().getURI();
 		boolean encoded = containsEncodedParts(uri);
-		//获取路由RUI信息
-		URI routeUri = route.getUri();
+		//获取构建路由时预先解析的目标地址
+		RouteTarget target = route.getTarget();
 
-		if (hasAnotherScheme(routeUri)) {
-			// this is a special url, save scheme to special attribute
-			// replace routeUri with schemeSpecificPart
+		if (target.getSchemePrefix() != null) {
 			//将路由的URI资源定位标识写入到上下文信息中
-			exchange.getAttributes().put(GATEWAY_SCHEME_PREFIX_ATTR, routeUri.getScheme());
-			routeUri = URI.create(routeUri.getSchemeSpecificPart());
+			exchange.getAttributes().put(GATEWAY_SCHEME_PREFIX_ATTR, target.getSchemePrefix());
 		}
 
 		//重新构建路由的URI信息
-		URI requestUrl = UriComponentsBuilder.fromUri(uri)
-				.uri(routeUri)
-				.build(encoded)
-				.toUri();
+		URI requestUrl = target.toRequestUrl(uri, encoded);
 		//设置路由URI信息到上下文环境中
 		exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
 		return chain.filter(exchange);
 	}
 
 	/* for testing */ static boolean hasAnotherScheme(URI uri) {
-		return schemePattern.matcher(uri.getSchemeSpecificPart()).matches() && uri.getHost() == null
-				&& uri.getRawPath() == null;
+		return RouteTarget.hasAnotherScheme(uri);
 	}
 }
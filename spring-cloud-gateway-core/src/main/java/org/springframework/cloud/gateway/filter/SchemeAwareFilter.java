@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.util.Set;
+
+/**
+ * 声明适用的路由URI scheme的全局过滤器，
+ * 路由的scheme不在其中时，该过滤器不会加入路由的过滤器链
+ * A {@link GlobalFilter} that only acts on routes with certain URI schemes.
+ * For a route such as {@code lb:ws://service} both {@code lb} and {@code ws}
+ * are considered. {@link org.springframework.cloud.gateway.handler.FilteringWebHandler}
+ * may leave the filter out of the chains of other routes.
+ */
+public interface SchemeAwareFilter {
+
+	/**
+	 * @return the route URI schemes this filter applies to
+	 */
+	Set<String> getRouteSchemes();
+
+	/**
+	 * 可能修改请求URL scheme的路由过滤器标记接口，包含此类过滤器的路由不会裁剪全局过滤器
+	 * Marker for route filters that may change the scheme of the request URL,
+	 * routes using such filters always get every global filter.
+	 */
+	interface ChangesScheme {
+	}
+}
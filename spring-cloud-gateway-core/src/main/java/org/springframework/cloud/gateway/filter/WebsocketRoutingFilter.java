@@ -4,7 +4,9 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -12,7 +14,10 @@ import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Mono;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.headers.CompiledHttpHeadersFilters;
 import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
+import org.springframework.cloud.gateway.filter.headers.RemovingHttpHeadersFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.reactive.socket.WebSocketHandler;
@@ -23,7 +28,6 @@ import org.springframework.web.reactive.socket.server.WebSocketService;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import static org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.filterRequest;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
@@ -32,7 +36,13 @@ import static org.springframework.util.StringUtils.commaDelimitedListToStringArr
 /**
  * @author Spencer Gibb
  */
-public class WebsocketRoutingFilter implements GlobalFilter, Ordered {
+public class WebsocketRoutingFilter implements GlobalFilter, Ordered, SchemeAwareFilter {
+
+	/**
+	 * 适用的路由scheme，http 请求携带 Upgrade 头时也会转换为 ws 请求
+	 */
+	private static final Set<String> ROUTE_SCHEMES = Collections.unmodifiableSet(
+			new HashSet<>(Arrays.asList("ws", "wss", "http", "https", "lb")));
 	private static final Log log = LogFactory.getLog(WebsocketRoutingFilter.class);
 	public static final String SEC_WEBSOCKET_PROTOCOL = "Sec-WebSocket-Protocol";
 
@@ -40,6 +50,11 @@ public class WebsocketRoutingFilter implements GlobalFilter, Ordered {
 	private final WebSocketService webSocketService;
 	private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
 
+	/**
+	 * 首次使用时编译的请求头过滤器
+	 */
+	private volatile CompiledHttpHeadersFilters compiledHeadersFilters;
+
 	public WebsocketRoutingFilter(WebSocketClient webSocketClient,
 								  WebSocketService webSocketService,
 								  ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
@@ -54,6 +69,11 @@ public class WebsocketRoutingFilter implements GlobalFilter, Ordered {
 		return Ordered.LOWEST_PRECEDENCE - 1;
 	}
 
+	@Override
+	public Set<String> getRouteSchemes() {
+		return ROUTE_SCHEMES;
+	}
+
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		changeSchemeIfIsWebSocketUpgrade(exchange);
@@ -68,8 +88,7 @@ public class WebsocketRoutingFilter implements GlobalFilter, Ordered {
 
 
 		HttpHeaders headers = exchange.getRequest().getHeaders();
-		HttpHeaders filtered = filterRequest(getHeadersFilters(),
-				exchange);
+		HttpHeaders filtered = getHeadersFilters().filter(headers, exchange);
 
 		List<String> protocols = headers.get(SEC_WEBSOCKET_PROTOCOL);
 		if (protocols != null) {
@@ -84,21 +103,21 @@ public class WebsocketRoutingFilter implements GlobalFilter, Ordered {
 						filtered, protocols));
 	}
 
-	private List<HttpHeadersFilter> getHeadersFilters() {
-		List<HttpHeadersFilter> filters = this.headersFilters.getIfAvailable();
-		if (filters == null) {
-			filters = new ArrayList<>();
-		}
+	private CompiledHttpHeadersFilters getHeadersFilters() {
+		CompiledHttpHeadersFilters compiled = this.compiledHeadersFilters;
+		if (compiled == null) {
+			List<HttpHeadersFilter> filters = new ArrayList<>();
+			List<HttpHeadersFilter> beans = this.headersFilters.getIfAvailable();
+			if (beans != null) {
+				filters.addAll(beans);
+			}
 
-		filters.add((headers, exchange) -> {
-			HttpHeaders filtered = new HttpHeaders();
-			headers.entrySet().stream()
-					.filter(entry -> !entry.getKey().toLowerCase().startsWith("sec-websocket"))
-					.forEach(header -> filtered.addAll(header.getKey(), header.getValue()));
-			return filtered;
-		});
+			filters.add((RemovingHttpHeadersFilter) name -> name.toLowerCase().startsWith("sec-websocket"));
 
-		return filters;
+			compiled = CompiledHttpHeadersFilters.compile(filters, Type.REQUEST);
+			this.compiledHeadersFilters = compiled;
+		}
+		return compiled;
 	}
 
 	private void changeSchemeIfIsWebSocketUpgrade(ServerWebExchange exchange) {
@@ -17,19 +17,25 @@
 
 package org.springframework.cloud.gateway.filter;
 
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.cloud.gateway.event.PredicateArgsEvent;
 import org.springframework.cloud.gateway.event.WeightDefinedEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.support.ConfigurationUtils;
 import org.springframework.cloud.gateway.support.WeightConfig;
 import org.springframework.context.ApplicationEvent;
@@ -55,7 +61,14 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 	public static final int WEIGHT_CALC_FILTER_ORDER = 10001;
 
 	private final Validator validator;
-	private Random random = new Random();
+	/**
+	 * 随机数生成器，为 null 时使用 ThreadLocalRandom
+	 */
+	private Random random;
+	/**
+	 * 粘性路由的key解析器，为 null 时随机选择路由
+	 */
+	private KeyResolver stickyKeyResolver;
 	private int order = WEIGHT_CALC_FILTER_ORDER;
 
 	private Map<String, GroupWeightConfig> groupWeights = new ConcurrentHashMap<>();
@@ -81,6 +94,15 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 		this.random = random;
 	}
 
+	/**
+	 * 设置粘性路由的key解析器，相同key的请求在权重不变时总是选择相同的路由，
+	 * 无法解析出key的请求仍随机选择
+	 * @param stickyKeyResolver
+	 */
+	public void setStickyKeyResolver(KeyResolver stickyKeyResolver) {
+		this.stickyKeyResolver = stickyKeyResolver;
+	}
+
 	@Override
 	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
 		return PredicateArgsEvent.class.isAssignableFrom(eventType) || // config file
@@ -122,14 +144,9 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 				.anyMatch(key -> key.startsWith(WeightConfig.CONFIG_PREFIX + "."));
 	}
 
-	/* for testing */ void addWeightConfig(WeightConfig weightConfig) {
+	/* for testing */ synchronized void addWeightConfig(WeightConfig weightConfig) {
 		String group = weightConfig.getGroup();
-		GroupWeightConfig c = groupWeights.get(group);
-		if (c == null) {
-			c = new GroupWeightConfig(group);
-			groupWeights.put(group, c);
-		}
-		GroupWeightConfig config = c;
+		GroupWeightConfig config = groupWeights.computeIfAbsent(group, GroupWeightConfig::new);
 		config.weights.put(weightConfig.getRouteId(), weightConfig.getWeight());
 
 		//recalculate
@@ -137,27 +154,16 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 		// normalize weights
 		int weightsSum = config.weights.values().stream().mapToInt(Integer::intValue).sum();
 
-		final AtomicInteger index = new AtomicInteger(0);
+		List<String> routeIds = new ArrayList<>(config.weights.size());
+		List<Double> normalizedWeights = new ArrayList<>(config.weights.size());
 		config.weights.forEach((routeId, weight) -> {
-			Double nomalizedWeight = weight / (double) weightsSum;
-			config.normalizedWeights.put(routeId, nomalizedWeight);
-
-			// recalculate rangeIndexes
-			config.rangeIndexes.put(index.getAndIncrement(), routeId);
+			Double normalizedWeight = weight / (double) weightsSum;
+			config.normalizedWeights.put(routeId, normalizedWeight);
+			routeIds.add(routeId);
+			normalizedWeights.add(normalizedWeight);
 		});
 
-		//TODO: calculate ranges
-		config.ranges.clear();
-
-		config.ranges.add(0.0);
-
-		List<Double> values = new ArrayList<>(config.normalizedWeights.values());
-		for (int i = 0; i < values.size(); i++) {
-			Double currentWeight = values.get(i);
-			Double previousRange = config.ranges.get(i);
-			Double range = previousRange + currentWeight;
-			config.ranges.add(range);
-		}
+		config.aliasTable = new AliasTable(routeIds, normalizedWeights);
 
 		if (log.isTraceEnabled()) {
 			log.trace("Recalculated group weight config "+ config);
@@ -170,31 +176,21 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-		Map<String, String> weights = getWeights(exchange);
-
-		groupWeights.forEach((group, config) -> {
-			double r = this.random.nextDouble();
-
-			List<Double> ranges = config.ranges;
-
-			if (log.isTraceEnabled()) {
-				log.trace("Weight for group: "+group +", ranges: "+ranges +", r: "+r);
-			}
-
-			for (int i = 0; i < ranges.size() - 1; i++) {
-				if (r >= ranges.get(i) && r < ranges.get(i+1)) {
-					String routeId = config.rangeIndexes.get(i);
-					weights.put(group, routeId);
-					break;
-				}
-			}
-		});
-
-		if (log.isTraceEnabled()) {
-			log.trace("Weights attr: "+weights);
+		if (groupWeights.isEmpty()) {
+			return chain.filter(exchange);
 		}
-
-		return chain.filter(exchange);
+		if (this.stickyKeyResolver == null) {
+			//每个权重组仅在路由的Weight谓语首次读取时选择路由
+			exchange.getAttributes().put(WEIGHT_ATTR, new LazyWeights(this.groupWeights, this.random, null));
+			return chain.filter(exchange);
+		}
+		return this.stickyKeyResolver.resolve(exchange)
+				.defaultIfEmpty("")
+				.flatMap(key -> {
+					exchange.getAttributes().put(WEIGHT_ATTR, new LazyWeights(this.groupWeights, this.random,
+							key.isEmpty() ? null : key));
+					return chain.filter(exchange);
+				});
 	}
 
 	@NotNull
@@ -215,8 +211,7 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 
 		LinkedHashMap<String, Double> normalizedWeights = new LinkedHashMap<>();
 
-		LinkedHashMap<Integer, String> rangeIndexes = new LinkedHashMap<>();
-		List<Double> ranges = new ArrayList<>();
+		volatile AliasTable aliasTable;
 
 		GroupWeightConfig(String group) {
 			this.group = group;
@@ -228,9 +223,192 @@ public class WeightCalculatorWebFilter implements WebFilter, Ordered, SmartAppli
 					.append("group", group)
 					.append("weights", weights)
 					.append("normalizedWeights", normalizedWeights)
-					.append("rangeIndexes", rangeIndexes)
 					.toString();
 		}
 	}
 
+	/**
+	 * 权重组的别名表（Vose alias method），O(1) 按权重随机选择路由，也可根据key一致地选择路由
+	 */
+	/* for testing */ static class AliasTable {
+
+		private final String[] routeIds;
+
+		private final double[] probabilities;
+
+		private final int[] aliases;
+
+		private final double[] weights;
+
+		AliasTable(List<String> routeIds, List<Double> normalizedWeights) {
+			int n = routeIds.size();
+			this.routeIds = routeIds.toArray(new String[0]);
+			this.weights = new double[n];
+			this.probabilities = new double[n];
+			this.aliases = new int[n];
+
+			double[] scaled = new double[n];
+			Deque<Integer> small = new ArrayDeque<>();
+			Deque<Integer> large = new ArrayDeque<>();
+			for (int i = 0; i < n; i++) {
+				this.weights[i] = normalizedWeights.get(i);
+				scaled[i] = this.weights[i] * n;
+				if (scaled[i] < 1.0) {
+					small.push(i);
+				}
+				else {
+					large.push(i);
+				}
+			}
+			while (!small.isEmpty() && !large.isEmpty()) {
+				int less = small.pop();
+				int more = large.pop();
+				this.probabilities[less] = scaled[less];
+				this.aliases[less] = more;
+				scaled[more] = scaled[more] + scaled[less] - 1.0;
+				if (scaled[more] < 1.0) {
+					small.push(more);
+				}
+				else {
+					large.push(more);
+				}
+			}
+			// remaining columns are full, rounding errors included
+			while (!large.isEmpty()) {
+				this.probabilities[large.pop()] = 1.0;
+			}
+			while (!small.isEmpty()) {
+				this.probabilities[small.pop()] = 1.0;
+			}
+		}
+
+		/**
+		 * 根据 [0, 1) 之间的随机数选择路由
+		 * @param r
+		 * @return route id
+		 */
+		String select(double r) {
+			double scaled = r * this.routeIds.length;
+			int column = Math.min((int) scaled, this.routeIds.length - 1);
+			if (scaled - column < this.probabilities[column]) {
+				return this.routeIds[column];
+			}
+			return this.routeIds[this.aliases[column]];
+		}
+
+		/**
+		 * 根据key选择路由（加权的最高随机权重哈希），权重变化时只有最少的key改变路由
+		 * @param key
+		 * @return route id
+		 */
+		String select(String key) {
+			long keyHash = hash(key);
+			String chosen = null;
+			double best = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < this.routeIds.length; i++) {
+				if (this.weights[i] <= 0) {
+					continue;
+				}
+				// uniform in (0, 1)
+				double u = ((mix(keyHash ^ hash(this.routeIds[i])) >>> 11) + 0.5) / (1L << 53);
+				double score = -this.weights[i] / Math.log(u);
+				if (score > best) {
+					best = score;
+					chosen = this.routeIds[i];
+				}
+			}
+			return chosen;
+		}
+
+		private static long hash(String value) {
+			// FNV-1a
+			long hash = 0xcbf29ce484222325L;
+			for (int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			return hash;
+		}
+
+		private static long mix(long value) {
+			// finalizer of MurmurHash3
+			value ^= value >>> 33;
+			value *= 0xff51afd7ed558ccdL;
+			value ^= value >>> 33;
+			value *= 0xc4ceb9fe1a85ec53L;
+			value ^= value >>> 33;
+			return value;
+		}
+	}
+
+	/**
+	 * 请求的权重组选择结果，每个权重组在首次读取时选择一次，之后的读取返回相同的路由
+	 */
+	private static class LazyWeights extends AbstractMap<String, String> {
+
+		private final Map<String, GroupWeightConfig> groupWeights;
+
+		private final Random random;
+
+		private final String stickyKey;
+
+		private Map<String, String> chosen;
+
+		LazyWeights(Map<String, GroupWeightConfig> groupWeights, Random random, String stickyKey) {
+			this.groupWeights = groupWeights;
+			this.random = random;
+			this.stickyKey = stickyKey;
+		}
+
+		@Override
+		public boolean containsKey(Object group) {
+			return this.groupWeights.containsKey(group);
+		}
+
+		@Override
+		public synchronized String get(Object group) {
+			if (this.chosen != null) {
+				String routeId = this.chosen.get(group);
+				if (routeId != null) {
+					return routeId;
+				}
+			}
+			GroupWeightConfig config = this.groupWeights.get(group);
+			AliasTable aliasTable = config != null ? config.aliasTable : null;
+			if (aliasTable == null) {
+				return null;
+			}
+			String routeId;
+			if (this.stickyKey != null) {
+				routeId = aliasTable.select(this.stickyKey);
+				if (log.isTraceEnabled()) {
+					log.trace("Weight for group: " + group + ", key: " + this.stickyKey + ", chosen route: " + routeId);
+				}
+			}
+			else {
+				double r = this.random != null ? this.random.nextDouble() : ThreadLocalRandom.current().nextDouble();
+				routeId = aliasTable.select(r);
+				if (log.isTraceEnabled()) {
+					log.trace("Weight for group: " + group + ", r: " + r + ", chosen route: " + routeId);
+				}
+			}
+			if (this.chosen == null) {
+				this.chosen = new HashMap<>();
+			}
+			this.chosen.put((String) group, routeId);
+			return routeId;
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			Map<String, String> weights = new LinkedHashMap<>();
+			for (String group : this.groupWeights.keySet()) {
+				String routeId = get(group);
+				if (routeId != null) {
+					weights.put(group, routeId);
+				}
+			}
+			return weights.entrySet();
+		}
+	}
 }
@@ -22,12 +22,16 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.SchemeAwareFilter;
 import org.springframework.web.server.ServerWebExchange;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 
+import reactor.core.publisher.Mono;
+
 /**
  * 抽象的改变请求URL过滤器
  * This filter changes the request uri by
@@ -52,9 +56,24 @@ public abstract class AbstractChangeRequestUriGatewayFilterFactory<T>
 			T config);
 
 	public GatewayFilter apply(T config) {
-		return new OrderedGatewayFilter((exchange, chain) -> {
+		return new OrderedGatewayFilter(new ChangeRequestUriGatewayFilter(config), this.order);
+	}
+
+	/**
+	 * 变更请求URL的过滤器，变更后的URL可能使用其他 scheme
+	 */
+	private class ChangeRequestUriGatewayFilter implements GatewayFilter, SchemeAwareFilter.ChangesScheme {
+
+		private final T config;
+
+		ChangeRequestUriGatewayFilter(T config) {
+			this.config = config;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 			//获取变更的URL
-			Optional<URI> uri = this.determineRequestUri(exchange, config);
+			Optional<URI> uri = determineRequestUri(exchange, this.config);
 			//当URL Optional包含值时
 			uri.ifPresent(u -> {
 				//获取调度中心的属性map
@@ -63,6 +82,6 @@ public abstract class AbstractChangeRequestUriGatewayFilterFactory<T>
 				attributes.put(GATEWAY_REQUEST_URL_ATTR, u);
 			});
 			return chain.filter(exchange);
-		}, this.order);
+		}
 	}
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.factory;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.util.Assert;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CONNECTION_POOL_ATTR;
+
+/**
+ * 选择路由使用的上游连接池的过滤器创建工厂
+ * Sends a route through a connection pool profile configured with
+ * {@code spring.cloud.gateway.httpclient.pools}, isolating its connections from other routes.
+ */
+public class ConnectionPoolGatewayFilterFactory extends AbstractGatewayFilterFactory<ConnectionPoolGatewayFilterFactory.Config> {
+
+	public static final String NAME_KEY = "name";
+
+	/**
+	 * 已配置的连接池，为空时不校验连接池名称
+	 */
+	private final HttpClientProperties properties;
+
+	public ConnectionPoolGatewayFilterFactory() {
+		this(null);
+	}
+
+	public ConnectionPoolGatewayFilterFactory(HttpClientProperties properties) {
+		super(Config.class);
+		this.properties = properties;
+	}
+
+	@Override
+	public List<String> shortcutFieldOrder() {
+		return Arrays.asList(NAME_KEY);
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		final String name = config.getName();
+		Assert.hasText(name, "name must not be empty");
+		//在编译路由时拒绝未配置的连接池，而不是在请求时失败
+		Assert.isTrue(this.properties == null || this.properties.getPools().containsKey(name),
+				"Unable to find connection pool " + name
+						+ ", configure it with spring.cloud.gateway.httpclient.pools." + name);
+		return (exchange, chain) -> {
+			//设置上下文环境CONNECTION_POOL_ATTR属性
+			exchange.getAttributes().put(CONNECTION_POOL_ATTR, name);
+			return chain.filter(exchange);
+		};
+	}
+
+	public static class Config {
+
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public Config setName(String name) {
+			this.name = name;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.factory;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.cloud.gateway.filter.FlushPolicy;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.FLUSH_POLICY_ATTR;
+
+/**
+ * 设置路由代理请求及响应报文刷新策略的过滤器创建工厂
+ * Selects the {@link FlushPolicy} of a route's proxied request and response bodies.
+ */
+public class FlushPolicyGatewayFilterFactory extends AbstractGatewayFilterFactory<FlushPolicyGatewayFilterFactory.Config> {
+
+	public static final String POLICY_KEY = "policy";
+	public static final String SIZE_KEY = "size";
+
+	public FlushPolicyGatewayFilterFactory() {
+		super(Config.class);
+	}
+
+	@Override
+	public List<String> shortcutFieldOrder() {
+		return Arrays.asList(POLICY_KEY, SIZE_KEY);
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		final FlushPolicy flushPolicy = toFlushPolicy(config);
+		return (exchange, chain) -> {
+			//设置上下文环境FLUSH_POLICY_ATTR属性
+			exchange.getAttributes().put(FLUSH_POLICY_ATTR, flushPolicy);
+			return chain.filter(exchange);
+		};
+	}
+
+	private FlushPolicy toFlushPolicy(Config config) {
+		switch (config.getPolicy()) {
+			case SIZE:
+				return FlushPolicy.onSize(config.getSize());
+			case IDLE_TICK:
+				return FlushPolicy.onIdleTick();
+			default:
+				return FlushPolicy.onEach();
+		}
+	}
+
+	public enum Policy {
+		/** Flush after every buffer. */
+		EACH,
+		/** Flush once the written bytes reach {@link Config#getSize()}. */
+		SIZE,
+		/** Flush once per event loop iteration. */
+		IDLE_TICK
+	}
+
+	public static class Config {
+
+		private Policy policy = Policy.EACH;
+
+		private int size = 65536;
+
+		public Policy getPolicy() {
+			return policy;
+		}
+
+		public Config setPolicy(Policy policy) {
+			this.policy = policy;
+			return this;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public Config setSize(int size) {
+			this.size = size;
+			return this;
+		}
+	}
+}
@@ -23,11 +23,9 @@ import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.cloud.gateway.filter.PathRewriteFilter;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ALREADY_PREFIXED_ATTR;
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
 
 /**
  * 路径前缀过滤器创建工厂
@@ -51,36 +49,22 @@ public class PrefixPathGatewayFilterFactory extends AbstractGatewayFilterFactory
 
 	@Override
 	public GatewayFilter apply(Config config) {
-		return (exchange, chain) -> {
+		return (PathRewriteFilter) (exchange, path) -> {
 
 			boolean alreadyPrefixed = exchange.getAttributeOrDefault(GATEWAY_ALREADY_PREFIXED_ATTR, false);
 			if (alreadyPrefixed) {
-				return chain.filter(exchange);
+				return null;
 			}
 			//设置前缀添加状态属性
 			exchange.getAttributes().put(GATEWAY_ALREADY_PREFIXED_ATTR, true);
 
-			//获取当前请求ServerHttpRequest
-			ServerHttpRequest req = exchange.getRequest();
-			//保存原始URI到上下文环境中
-			addOriginalRequestUrl(exchange, req.getURI());
 			//组装添加前缀后的路径信息
-			String newPath = config.prefix + req.getURI().getRawPath();
-
-			//构建添加前缀路径的新ServerHttpRequest
-			ServerHttpRequest request = req.mutate()
-					.path(newPath)
-					.build();
-
-			//设置新请求URI到上下文环境
-			exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, request.getURI());
+			String newPath = config.prefix + path;
 
 			if (log.isTraceEnabled()) {
-				log.trace("Prefixed URI with: "+config.prefix+" -> "+request.getURI());
+				log.trace("Prefixed path with: "+config.prefix+" -> "+newPath);
 			}
-
-			//将新请求信息添加到调度器中
-			return chain.filter(exchange.mutate().request(request).build());
+			return newPath;
 		};
 	}
 
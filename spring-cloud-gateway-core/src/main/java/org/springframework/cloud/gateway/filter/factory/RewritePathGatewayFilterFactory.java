@@ -19,12 +19,10 @@ package org.springframework.cloud.gateway.filter.factory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
-import org.springframework.http.server.reactive.ServerHttpRequest;
-
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+import org.springframework.cloud.gateway.filter.PathRewriteFilter;
 
 /**
  * path重写 过滤器创建工厂
@@ -47,20 +45,9 @@ public class RewritePathGatewayFilterFactory extends AbstractGatewayFilterFactor
 	@Override
 	public GatewayFilter apply(Config config) {
 		String replacement = config.replacement.replace("$\\", "$");
-		return (exchange, chain) -> {
-			ServerHttpRequest req = exchange.getRequest();
-			addOriginalRequestUrl(exchange, req.getURI());
-			String path = req.getURI().getRawPath();
-			String newPath = path.replaceAll(config.regexp, replacement);
-
-			ServerHttpRequest request = req.mutate()
-					.path(newPath)
-					.build();
-
-			exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, request.getURI());
-
-			return chain.filter(exchange.mutate().request(request).build());
-		};
+		//预编译正则表达式
+		Pattern pattern = Pattern.compile(config.regexp);
+		return (PathRewriteFilter) (exchange, path) -> pattern.matcher(path).replaceAll(replacement);
 	}
 
 	public static class Config {
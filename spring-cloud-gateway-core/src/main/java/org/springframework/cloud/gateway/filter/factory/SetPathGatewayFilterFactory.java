@@ -17,20 +17,17 @@
 
 package org.springframework.cloud.gateway.filter.factory;
 
-import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.cloud.gateway.filter.PathRewriteFilter;
 import org.springframework.web.util.UriTemplate;
 import org.springframework.web.util.pattern.PathPattern.PathMatchInfo;
 
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
 
 /**
  * 设置path过滤器创建工厂
@@ -54,11 +51,8 @@ public class SetPathGatewayFilterFactory extends AbstractGatewayFilterFactory<Se
 		//获取配置中的URI UriTemplate
 		UriTemplate uriTemplate = new UriTemplate(config.template);
 
-		return (exchange, chain) -> {
+		return (PathRewriteFilter) (exchange, path) -> {
 			PathMatchInfo variables = exchange.getAttribute(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
-			ServerHttpRequest req = exchange.getRequest();
-			//添加原始请求到上下问环境中
-			addOriginalRequestUrl(exchange, req.getURI());
 			Map<String, String> uriVariables;
 
 			if (variables != null) {
@@ -67,18 +61,8 @@ public class SetPathGatewayFilterFactory extends AbstractGatewayFilterFactory<Se
 				uriVariables = Collections.emptyMap();
 			}
 
-			//构建新的URI
-			URI uri = uriTemplate.expand(uriVariables);
-			String newPath = uri.getRawPath();
-
-			exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, uri);
-
-			//构建新请求信息
-			ServerHttpRequest request = req.mutate()
-					.path(newPath)
-					.build();
-
-			return chain.filter(exchange.mutate().request(request).build());
+			//构建新的路径
+			return uriTemplate.expand(uriVariables).getRawPath();
 		};
 	}
 
@@ -21,12 +21,9 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.cloud.gateway.filter.PathRewriteFilter;
 import org.springframework.util.StringUtils;
 
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
-import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
-
 /**
  * 截取路径前缀过滤器创建工厂
  *
@@ -49,21 +46,9 @@ public class StripPrefixGatewayFilterFactory extends AbstractGatewayFilterFactor
 
 	@Override
 	public GatewayFilter apply(Config config) {
-		return (exchange, chain) ->  {
-			ServerHttpRequest request = exchange.getRequest();
-			addOriginalRequestUrl(exchange, request.getURI());
-			String path = request.getURI().getRawPath();
-			String newPath = "/" + Arrays.stream(StringUtils.tokenizeToStringArray(path, "/"))
-					//跳过给定值的数据
-					.skip(config.parts).collect(Collectors.joining("/"));
-			ServerHttpRequest newRequest = request.mutate()
-					.path(newPath)
-					.build();
-
-			exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, newRequest.getURI());
-
-			return chain.filter(exchange.mutate().request(newRequest).build());
-		};
+		return (PathRewriteFilter) (exchange, path) -> "/" + Arrays.stream(StringUtils.tokenizeToStringArray(path, "/"))
+				//跳过给定值的数据
+				.skip(config.parts).collect(Collectors.joining("/"));
 	}
 
 	public static class Config {
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.headers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 预先编译的请求头过滤器管道
+ * The {@link HttpHeadersFilter}s supporting one {@link Type}, compiled once into a plan
+ * that copies the headers a single time. Adjacent {@link RemovingHttpHeadersFilter}s are
+ * merged, leading removals are applied while copying and {@link InPlaceHttpHeadersFilter}s
+ * modify that copy. Other filters are invoked as {@link HttpHeadersFilter#filter} would.
+ */
+public final class CompiledHttpHeadersFilters {
+
+	private static final CompiledHttpHeadersFilters EMPTY = new CompiledHttpHeadersFilters(
+			Collections.emptyList());
+
+	/**
+	 * 执行步骤，每个元素为合并后的 {@link Removal} 或单个过滤器
+	 */
+	private final Object[] steps;
+
+	private CompiledHttpHeadersFilters(List<Object> steps) {
+		this.steps = steps.toArray();
+	}
+
+	/**
+	 * 编译过滤器，保持过滤器在列表中的顺序
+	 * @param filters the filters, may be {@code null}
+	 * @param type the type of headers to filter
+	 * @return the compiled filters
+	 */
+	public static CompiledHttpHeadersFilters compile(List<HttpHeadersFilter> filters, Type type) {
+		if (filters == null || filters.isEmpty()) {
+			return EMPTY;
+		}
+		List<Object> steps = new ArrayList<>(filters.size());
+		for (HttpHeadersFilter filter : filters) {
+			if (!filter.supports(type)) {
+				continue;
+			}
+			if (filter instanceof RemovingHttpHeadersFilter) {
+				Object last = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+				if (last instanceof Removal) {
+					((Removal) last).filters.add((RemovingHttpHeadersFilter) filter);
+				}
+				else {
+					steps.add(new Removal((RemovingHttpHeadersFilter) filter));
+				}
+			}
+			else {
+				steps.add(filter);
+			}
+		}
+		return steps.isEmpty() ? EMPTY : new CompiledHttpHeadersFilters(steps);
+	}
+
+	/**
+	 * 是否只包含移除请求头的过滤器
+	 * @return whether all compiled filters are {@link RemovingHttpHeadersFilter}s
+	 */
+	public boolean isRemovingOnly() {
+		return this.steps.length == 0 || (this.steps.length == 1 && this.steps[0] instanceof Removal);
+	}
+
+	/**
+	 * 请求头是否被某个移除过滤器移除
+	 * @param name the header name
+	 * @return whether a compiled {@link RemovingHttpHeadersFilter} removes the header
+	 */
+	public boolean removes(String name) {
+		for (Object step : this.steps) {
+			if (step instanceof Removal && ((Removal) step).removes(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 执行过滤器管道
+	 * @param input the headers to filter, not modified
+	 * @param exchange the current exchange
+	 * @return the filtered headers, {@code input} itself when there are no filters
+	 */
+	public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+		if (this.steps.length == 0) {
+			return input;
+		}
+		HttpHeaders headers = input;
+		// whether headers is a copy made here that in place filters may modify
+		boolean owned = false;
+		int i = 0;
+		if (this.steps[0] instanceof Removal || this.steps[0] instanceof InPlaceHttpHeadersFilter) {
+			Removal removal = this.steps[0] instanceof Removal ? (Removal) this.steps[0] : null;
+			headers = copy(input, removal);
+			owned = true;
+			i = removal != null ? 1 : 0;
+		}
+		for (; i < this.steps.length; i++) {
+			Object step = this.steps[i];
+			if (step instanceof Removal) {
+				if (!owned) {
+					headers = copy(headers, (Removal) step);
+					owned = true;
+				}
+				else {
+					((Removal) step).removeFrom(headers);
+				}
+			}
+			else if (step instanceof InPlaceHttpHeadersFilter) {
+				if (!owned) {
+					headers = copy(headers, null);
+					owned = true;
+				}
+				((InPlaceHttpHeadersFilter) step).filterInPlace(headers, exchange);
+			}
+			else {
+				HttpHeaders filtered = ((HttpHeadersFilter) step).filter(headers, exchange);
+				owned = owned && filtered == headers;
+				headers = filtered;
+			}
+		}
+		return headers;
+	}
+
+	private static HttpHeaders copy(HttpHeaders input, Removal removal) {
+		HttpHeaders copy = new HttpHeaders();
+		for (Map.Entry<String, List<String>> entry : input.entrySet()) {
+			if (removal == null || !removal.removes(entry.getKey())) {
+				copy.addAll(entry.getKey(), entry.getValue());
+			}
+		}
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		List<Object> steps = new ArrayList<>(this.steps.length);
+		Collections.addAll(steps, this.steps);
+		return "CompiledHttpHeadersFilters" + steps;
+	}
+
+	/**
+	 * 合并的相邻移除过滤器
+	 */
+	private static class Removal {
+
+		private final List<RemovingHttpHeadersFilter> filters = new ArrayList<>(2);
+
+		Removal(RemovingHttpHeadersFilter filter) {
+			this.filters.add(filter);
+		}
+
+		boolean removes(String name) {
+			for (int i = 0; i < this.filters.size(); i++) {
+				if (this.filters.get(i).removes(name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void removeFrom(HttpHeaders headers) {
+			List<String> removed = null;
+			for (String name : headers.keySet()) {
+				if (removes(name)) {
+					if (removed == null) {
+						removed = new ArrayList<>();
+					}
+					removed.add(name);
+				}
+			}
+			if (removed != null) {
+				removed.forEach(headers::remove);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Removal" + this.filters;
+		}
+	}
+}
@@ -35,7 +35,7 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 
-public class ForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
+public class ForwardedHeadersFilter implements InPlaceHttpHeadersFilter, Ordered {
 
 	public static final String FORWARDED_HEADER = "Forwarded";
 
@@ -45,17 +45,11 @@ public class ForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
 	}
 
 	@Override
-	public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+	public void filterInPlace(HttpHeaders updated, ServerWebExchange exchange) {
 		ServerHttpRequest request = exchange.getRequest();
-		HttpHeaders original = input;
-		HttpHeaders updated = new HttpHeaders();
 
-		// copy all headers except Forwarded
-		original.entrySet().stream()
-				.filter(entry -> !entry.getKey().toLowerCase().equalsIgnoreCase(FORWARDED_HEADER))
-				.forEach(entry -> updated.addAll(entry.getKey(), entry.getValue()));
-
-		List<Forwarded> forwardeds = parse(original.get(FORWARDED_HEADER));
+		// move Forwarded after all other headers
+		List<Forwarded> forwardeds = parse(updated.remove(FORWARDED_HEADER));
 
 		for (Forwarded f : forwardeds) {
 			updated.add(FORWARDED_HEADER, f.toString());
@@ -63,7 +57,7 @@ public class ForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
 
 		//TODO: add new forwarded
 		URI uri = request.getURI();
-		String host = original.getFirst(HttpHeaders.HOST);
+		String host = updated.getFirst(HttpHeaders.HOST);
 		Forwarded forwarded = new Forwarded()
 				.put("host", host)
 				.put("proto", uri.getScheme());
@@ -80,8 +74,6 @@ public class ForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
 		// TODO: support by?
 
 		updated.add(FORWARDED_HEADER, forwarded.toHeaderValue());
-
-		return updated;
 	}
 
 
@@ -45,20 +45,7 @@ public interface HttpHeadersFilter {
 
 	static HttpHeaders filter(List<HttpHeadersFilter> filters, HttpHeaders input,
 			ServerWebExchange exchange, Type type) {
-		HttpHeaders response = input;
-		if (filters != null) {
-			HttpHeaders reduce = filters.stream()
-					.filter(headersFilter -> headersFilter.supports(type))
-					.reduce(input,
-							(headers, filter) -> filter.filter(headers, exchange),
-							(httpHeaders, httpHeaders2) -> {
-								httpHeaders.addAll(httpHeaders2);
-								return httpHeaders;
-							});
-			return reduce;
-		}
-
-		return response;
+		return CompiledHttpHeadersFilters.compile(filters, type).filter(input, exchange);
 	}
 
 	default boolean supports(Type type) {
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.headers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 直接修改请求头副本的过滤器，编译后的过滤器管道可以在同一个副本上依次执行，避免每个过滤器复制一次
+ * A {@link HttpHeadersFilter} that modifies a private copy of the headers instead of
+ * building a new one, so that {@link CompiledHttpHeadersFilters} can run a series of
+ * such filters on a single copy.
+ */
+public interface InPlaceHttpHeadersFilter extends HttpHeadersFilter {
+
+	/**
+	 * 修改请求头
+	 * @param headers a mutable copy of the headers, owned by the caller, including its value lists
+	 * @param exchange the current exchange
+	 */
+	void filterInPlace(HttpHeaders headers, ServerWebExchange exchange);
+
+	@Override
+	default HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+		HttpHeaders updated = new HttpHeaders();
+		input.forEach(updated::addAll);
+		filterInPlace(updated, exchange);
+		return updated;
+	}
+}
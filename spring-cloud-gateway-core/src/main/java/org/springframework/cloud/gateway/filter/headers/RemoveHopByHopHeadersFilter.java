@@ -23,11 +23,9 @@ import java.util.Set;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.core.Ordered;
-import org.springframework.http.HttpHeaders;
-import org.springframework.web.server.ServerWebExchange;
 
 @ConfigurationProperties("spring.cloud.gateway.filter.remove-hop-by-hop")
-public class RemoveHopByHopHeadersFilter implements HttpHeadersFilter, Ordered {
+public class RemoveHopByHopHeadersFilter implements RemovingHttpHeadersFilter, Ordered {
 
 	public static final Set<String> HEADERS_REMOVED_ON_REQUEST =
 			new HashSet<>(Arrays.asList(
@@ -67,14 +65,8 @@ public class RemoveHopByHopHeadersFilter implements HttpHeadersFilter, Ordered {
 	}
 
 	@Override
-	public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
-		HttpHeaders filtered = new HttpHeaders();
-		
-		input.entrySet().stream()
-				.filter(entry -> !this.headers.contains(entry.getKey().toLowerCase()))
-				.forEach(entry -> filtered.addAll(entry.getKey(), entry.getValue()));
-
-		return filtered;
+	public boolean removes(String name) {
+		return this.headers.contains(name.toLowerCase());
 	}
 
 	@Override 
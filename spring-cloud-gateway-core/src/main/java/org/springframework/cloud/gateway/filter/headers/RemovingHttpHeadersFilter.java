@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.headers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 仅按名称移除请求头的过滤器，可以在复制请求头时直接执行而不产生中间副本
+ * A {@link HttpHeadersFilter} that only removes headers by name, independently of the
+ * exchange. Routing filters can apply it while copying headers between Netty and
+ * Spring instead of building intermediate copies.
+ */
+public interface RemovingHttpHeadersFilter extends HttpHeadersFilter {
+
+	/**
+	 * 是否移除该请求头
+	 * @param name the header name, in any case
+	 * @return whether the header is removed
+	 */
+	boolean removes(String name);
+
+	@Override
+	default HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+		HttpHeaders filtered = new HttpHeaders();
+		input.forEach((name, values) -> {
+			if (!removes(name)) {
+				filtered.addAll(name, values);
+			}
+		});
+		return filtered;
+	}
+}
@@ -27,7 +27,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 
 @ConfigurationProperties("spring.cloud.gateway.x-forwarded")
-public class XForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
+public class XForwardedHeadersFilter implements InPlaceHttpHeadersFilter, Ordered {
 	/** default http port */
 	public static final int HTTP_PORT = 80;
 
@@ -164,17 +164,12 @@ public class XForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
 	}
 
 	@Override
-	public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+	public void filterInPlace(HttpHeaders updated, ServerWebExchange exchange) {
 		ServerHttpRequest request = exchange.getRequest();
-		HttpHeaders original = input;
-		HttpHeaders updated = new HttpHeaders();
-
-		original.entrySet().stream()
-				.forEach(entry -> updated.addAll(entry.getKey(), entry.getValue()));
 
 		if (isForEnabled()) {
 			String remoteAddr = request.getRemoteAddress().getAddress().getHostAddress();
-			List<String> xforwarded = original.get(X_FORWARDED_FOR_HEADER);
+			List<String> xforwarded = updated.get(X_FORWARDED_FOR_HEADER);
 			// prevent duplicates
 			if (remoteAddr != null &&
 					(xforwarded == null || !xforwarded.contains(remoteAddr))) {
@@ -199,8 +194,6 @@ public class XForwardedHeadersFilter implements HttpHeadersFilter, Ordered {
 			String host = toHostHeader(request);
 			write(updated, X_FORWARDED_HOST_HEADER, host, isHostAppend());
 		}
-
-		return updated;
 	}
 
 	private void write(HttpHeaders headers, String name, String value, boolean append) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.pool;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 上游连接池的监控指标
+ * Publishes the {@link ConnectionPoolStats} of a {@link ConnectionPoolTracker} to Micrometer,
+ * tagged with the pool name, and with the remote address when the tracker keeps
+ * statistics per remote address.
+ */
+public class ConnectionPoolMetrics implements MeterBinder {
+
+	private final ConnectionPoolTracker tracker;
+
+	public ConnectionPoolMetrics(ConnectionPoolTracker tracker) {
+		this.tracker = tracker;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.tracker.addListener(stats -> bindTo(registry, stats));
+	}
+
+	private void bindTo(MeterRegistry registry, ConnectionPoolStats stats) {
+		Tags tags = Tags.of("pool", stats.getPool());
+		if (stats.getRemoteAddress() != null) {
+			tags = tags.and("remote.address", stats.getRemoteAddress());
+		}
+		Gauge.builder("gateway.httpclient.pool.connections", stats, ConnectionPoolStats::getActive)
+				.tags(tags).tag("state", "active")
+				.description("Upstream connections acquired by a request")
+				.register(registry);
+		Gauge.builder("gateway.httpclient.pool.connections", stats, ConnectionPoolStats::getIdle)
+				.tags(tags).tag("state", "idle")
+				.description("Open upstream connections not acquired by any request")
+				.register(registry);
+		Gauge.builder("gateway.httpclient.pool.pending", stats, ConnectionPoolStats::getPending)
+				.tags(tags)
+				.description("Requests waiting to acquire an upstream connection")
+				.register(registry);
+		FunctionCounter.builder("gateway.httpclient.pool.connections.created", stats, ConnectionPoolStats::getCreated)
+				.tags(tags)
+				.description("Upstream connections opened")
+				.register(registry);
+		FunctionCounter.builder("gateway.httpclient.pool.connections.closed", stats, ConnectionPoolStats::getClosed)
+				.tags(tags)
+				.description("Upstream connections closed")
+				.register(registry);
+		Timer acquireTimer = Timer.builder("gateway.httpclient.pool.acquire")
+				.tags(tags)
+				.description("Time spent acquiring an upstream connection")
+				.publishPercentileHistogram()
+				.register(registry);
+		stats.addAcquireTimeRecorder(nanos -> acquireTimer.record(nanos, TimeUnit.NANOSECONDS));
+	}
+}
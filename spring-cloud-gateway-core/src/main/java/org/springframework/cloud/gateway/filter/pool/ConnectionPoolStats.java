@@ -0,0 +1,197 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.pool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * 单个连接池（或其中某个远程地址）的连接统计
+ * Connection statistics of one upstream connection pool, or of one remote address of
+ * that pool when the statistics are kept per remote address.
+ */
+public class ConnectionPoolStats {
+
+	private final String pool;
+
+	private final String remoteAddress;
+
+	private final LongAdder created = new LongAdder();
+
+	private final LongAdder closed = new LongAdder();
+
+	private final LongAdder acquireStarted = new LongAdder();
+
+	private final LongAdder acquired = new LongAdder();
+
+	private final LongAdder acquireFailed = new LongAdder();
+
+	private final LongAdder released = new LongAdder();
+
+	private final LongAdder totalAcquireNanos = new LongAdder();
+
+	private final AtomicLong maxAcquireNanos = new AtomicLong();
+
+	/**
+	 * 获取连接耗时的额外记录器，例如 Micrometer 的 Timer
+	 */
+	private volatile LongConsumer acquireTimeRecorder;
+
+	ConnectionPoolStats(String pool, String remoteAddress) {
+		this.pool = pool;
+		this.remoteAddress = remoteAddress;
+	}
+
+	public String getPool() {
+		return this.pool;
+	}
+
+	/**
+	 * @return the remote address, or {@code null} if the statistics cover every address
+	 * of the pool
+	 */
+	public String getRemoteAddress() {
+		return this.remoteAddress;
+	}
+
+	/**
+	 * @return connections opened since the pool was created
+	 */
+	public long getCreated() {
+		return this.created.sum();
+	}
+
+	/**
+	 * @return connections closed since the pool was created
+	 */
+	public long getClosed() {
+		return this.closed.sum();
+	}
+
+	/**
+	 * @return connections currently open, whether in use or idle
+	 */
+	public long getOpen() {
+		return Math.max(0, this.created.sum() - this.closed.sum());
+	}
+
+	/**
+	 * @return connections currently acquired by a request
+	 */
+	public long getActive() {
+		return Math.max(0, this.acquired.sum() - this.released.sum());
+	}
+
+	/**
+	 * @return open connections not acquired by any request
+	 */
+	public long getIdle() {
+		return Math.max(0, getOpen() - getActive());
+	}
+
+	/**
+	 * @return acquisitions waiting for a connection
+	 */
+	public long getPending() {
+		return Math.max(0, this.acquireStarted.sum() - this.acquired.sum() - this.acquireFailed.sum());
+	}
+
+	public long getAcquired() {
+		return this.acquired.sum();
+	}
+
+	public long getAcquireFailed() {
+		return this.acquireFailed.sum();
+	}
+
+	public double getAcquireTimeMeanMillis() {
+		long count = this.acquired.sum() + this.acquireFailed.sum();
+		return count == 0 ? 0 : (double) this.totalAcquireNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double getAcquireTimeMaxMillis() {
+		return (double) this.maxAcquireNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	synchronized void addAcquireTimeRecorder(LongConsumer recorder) {
+		LongConsumer existing = this.acquireTimeRecorder;
+		this.acquireTimeRecorder = existing == null ? recorder : existing.andThen(recorder);
+	}
+
+	void connectionCreated() {
+		this.created.increment();
+	}
+
+	void connectionClosed() {
+		this.closed.increment();
+	}
+
+	void acquireStarted() {
+		this.acquireStarted.increment();
+	}
+
+	void acquireCompleted(boolean success, long nanos) {
+		if (success) {
+			this.acquired.increment();
+		}
+		else {
+			this.acquireFailed.increment();
+		}
+		this.totalAcquireNanos.add(nanos);
+		this.maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+		LongConsumer recorder = this.acquireTimeRecorder;
+		if (recorder != null) {
+			recorder.accept(nanos);
+		}
+	}
+
+	void released() {
+		this.released.increment();
+	}
+
+	/**
+	 * 供 actuator 端点输出的快照
+	 * @return a snapshot of the statistics
+	 */
+	public Map<String, Object> toMap() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("pool", this.pool);
+		if (this.remoteAddress != null) {
+			map.put("remoteAddress", this.remoteAddress);
+		}
+		map.put("active", getActive());
+		map.put("idle", getIdle());
+		map.put("pending", getPending());
+		map.put("created", getCreated());
+		map.put("closed", getClosed());
+		map.put("acquired", getAcquired());
+		map.put("acquireFailed", getAcquireFailed());
+		map.put("acquireTimeMeanMillis", getAcquireTimeMeanMillis());
+		map.put("acquireTimeMaxMillis", getAcquireTimeMaxMillis());
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionPoolStats" + toMap();
+	}
+}
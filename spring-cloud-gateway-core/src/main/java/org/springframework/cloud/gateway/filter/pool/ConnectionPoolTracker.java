@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.pool;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import reactor.ipc.netty.resources.PoolResources;
+
+/**
+ * 记录所有上游连接池的统计信息
+ * Keeps the {@link ConnectionPoolStats} of every upstream connection pool, per pool name
+ * and, when enabled, per remote address. Pools are instrumented through
+ * {@link #instrument(String, PoolResources)}.
+ */
+public class ConnectionPoolTracker {
+
+	/**
+	 * 是否按远程地址划分统计，关闭时同一连接池的所有地址共用一份统计，
+	 * 避免上游地址过多时统计及指标数量无限增长
+	 */
+	private final boolean perRemoteAddress;
+
+	private final Map<String, ConnectionPoolStats> stats = new ConcurrentHashMap<>();
+
+	private final List<Consumer<ConnectionPoolStats>> listeners = new CopyOnWriteArrayList<>();
+
+	public ConnectionPoolTracker() {
+		this(false);
+	}
+
+	/**
+	 * @param perRemoteAddress whether to keep statistics per remote address, rather than
+	 * one per pool
+	 */
+	public ConnectionPoolTracker(boolean perRemoteAddress) {
+		this.perRemoteAddress = perRemoteAddress;
+	}
+
+	/**
+	 * 包装连接池，记录其连接的创建、关闭及获取情况
+	 * @param poolName the name used to tag the statistics of the pool
+	 * @param poolResources the pool resources to instrument
+	 * @return the instrumented pool resources
+	 */
+	public PoolResources instrument(String poolName, PoolResources poolResources) {
+		return new InstrumentedPoolResources(this, poolName, poolResources);
+	}
+
+	/**
+	 * 注册统计信息创建时的回调，已存在的统计信息会立即回调
+	 * @param listener called with every statistics, existing and future ones
+	 */
+	public synchronized void addListener(Consumer<ConnectionPoolStats> listener) {
+		this.listeners.add(listener);
+		this.stats.values().forEach(listener);
+	}
+
+	public List<ConnectionPoolStats> getStats() {
+		return new ArrayList<>(this.stats.values());
+	}
+
+	ConnectionPoolStats getStats(String poolName, SocketAddress address) {
+		String remoteAddress = this.perRemoteAddress ? toString(address) : null;
+		// 同名连接池（例如 websocket 客户端复用的配置）共用同一份统计
+		String key = remoteAddress == null ? poolName : poolName + "|" + remoteAddress;
+		ConnectionPoolStats existing = this.stats.get(key);
+		if (existing != null) {
+			return existing;
+		}
+		synchronized (this) {
+			return this.stats.computeIfAbsent(key, k -> {
+				ConnectionPoolStats created = new ConnectionPoolStats(poolName, remoteAddress);
+				this.listeners.forEach(listener -> listener.accept(created));
+				return created;
+			});
+		}
+	}
+
+	private static String toString(SocketAddress address) {
+		if (address instanceof InetSocketAddress) {
+			InetSocketAddress inet = (InetSocketAddress) address;
+			return inet.getHostString() + ":" + inet.getPort();
+		}
+		return String.valueOf(address);
+	}
+}
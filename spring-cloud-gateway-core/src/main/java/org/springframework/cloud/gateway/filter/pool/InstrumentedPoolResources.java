@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.pool;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import reactor.ipc.netty.resources.PoolResources;
+
+/**
+ * 记录连接创建、关闭及获取情况的连接池包装
+ * {@link PoolResources} that records the connections created and closed by the pools
+ * of the delegate, as well as the acquisitions and releases made on them.
+ */
+class InstrumentedPoolResources implements PoolResources {
+
+	private final ConnectionPoolTracker tracker;
+
+	private final String poolName;
+
+	private final PoolResources delegate;
+
+	private final Map<SocketAddress, InstrumentedChannelPool> channelPools = new ConcurrentHashMap<>();
+
+	InstrumentedPoolResources(ConnectionPoolTracker tracker, String poolName, PoolResources delegate) {
+		this.tracker = tracker;
+		this.poolName = poolName;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public ChannelPool selectOrCreate(SocketAddress address, Supplier<? extends Bootstrap> bootstrap,
+			Consumer<? super Channel> onChannelCreate, EventLoopGroup group) {
+		InstrumentedChannelPool channelPool = this.channelPools.get(address);
+		if (channelPool != null) {
+			return channelPool;
+		}
+		return this.channelPools.computeIfAbsent(address, key -> {
+			ConnectionPoolStats stats = this.tracker.getStats(this.poolName, key);
+			Consumer<Channel> instrumentedOnCreate = channel -> {
+				stats.connectionCreated();
+				channel.closeFuture().addListener(future -> stats.connectionClosed());
+				if (onChannelCreate != null) {
+					onChannelCreate.accept(channel);
+				}
+			};
+			return new InstrumentedChannelPool(stats,
+					this.delegate.selectOrCreate(key, bootstrap, instrumentedOnCreate, group));
+		});
+	}
+
+	@Override
+	public void dispose() {
+		this.delegate.dispose();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return this.delegate.isDisposed();
+	}
+
+	@Override
+	public String toString() {
+		return "InstrumentedPoolResources{" +
+				"poolName='" + poolName + '\'' +
+				", delegate=" + delegate +
+				'}';
+	}
+
+	static class InstrumentedChannelPool implements ChannelPool {
+
+		private final ConnectionPoolStats stats;
+
+		private final ChannelPool delegate;
+
+		InstrumentedChannelPool(ConnectionPoolStats stats, ChannelPool delegate) {
+			this.stats = stats;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Future<Channel> acquire() {
+			long start = System.nanoTime();
+			this.stats.acquireStarted();
+			return recordAcquire(this.delegate.acquire(), start);
+		}
+
+		@Override
+		public Future<Channel> acquire(Promise<Channel> promise) {
+			long start = System.nanoTime();
+			this.stats.acquireStarted();
+			return recordAcquire(this.delegate.acquire(promise), start);
+		}
+
+		private Future<Channel> recordAcquire(Future<Channel> future, long start) {
+			future.addListener(f -> this.stats.acquireCompleted(f.isSuccess(), System.nanoTime() - start));
+			return future;
+		}
+
+		@Override
+		public Future<Void> release(Channel channel) {
+			this.stats.released();
+			return this.delegate.release(channel);
+		}
+
+		@Override
+		public Future<Void> release(Channel channel, Promise<Void> promise) {
+			this.stats.released();
+			return this.delegate.release(channel, promise);
+		}
+
+		@Override
+		public void close() {
+			this.delegate.close();
+		}
+	}
+}
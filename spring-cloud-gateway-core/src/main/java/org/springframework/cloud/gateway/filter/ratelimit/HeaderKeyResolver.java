@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.ratelimit;
+
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 使用请求头的值作为key
+ * {@link KeyResolver} that resolves the value of a request header.
+ */
+public class HeaderKeyResolver implements KeyResolver {
+
+	private final String name;
+
+	public HeaderKeyResolver(String name) {
+		Assert.hasText(name, "name must not be empty");
+		this.name = name;
+	}
+
+	@Override
+	public Mono<String> resolve(ServerWebExchange exchange) {
+		return Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(this.name));
+	}
+}
@@ -17,17 +17,29 @@
 
 package org.springframework.cloud.gateway.handler;
 
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.AssemblySafeFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.PathRewriteFilter;
+import org.springframework.cloud.gateway.filter.SchemeAwareFilter;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.web.server.ServerWebExchange;
@@ -55,10 +67,63 @@ public class FilteringWebHandler implements WebHandler {
 	 */
 	private final List<GatewayFilter> globalFilters;
 
+	/**
+	 * 每个路由组合排序后的过滤器缓存
+	 * key - route id
+	 * value - 路由及其过滤器
+	 */
+	private final Map<String, CombinedFilters> combinedFiltersForRoute = new ConcurrentHashMap<>();
+
+	/**
+	 * 是否使用预编译的过滤器链
+	 */
+	private boolean precompiledChains = false;
+
+	/**
+	 * 是否根据路由的scheme裁剪全局过滤器
+	 */
+	private boolean pruneByScheme = false;
+
+	/**
+	 * 是否合并连续的路径重写过滤器
+	 */
+	private boolean fusePathRewrites = false;
+
+	/**
+	 * 过滤器链是否由预热维护，此时刷新路由不再清空缓存，而是在预热新的路由表时移除已删除的路由
+	 */
+	private volatile boolean warmedUp = false;
+
 	public FilteringWebHandler(List<GlobalFilter> globalFilters) {
 		this.globalFilters = loadFilters(globalFilters);
 	}
 
+	/**
+	 * 设置是否使用预编译的过滤器链，预编译的过滤器链按路由构建一次，请求时不再创建链对象，
+	 * 并且对 {@link AssemblySafeFilter} 不再使用 Mono.defer 包装
+	 * @param precompiledChains
+	 */
+	public void setPrecompiledChains(boolean precompiledChains) {
+		this.precompiledChains = precompiledChains;
+	}
+
+	/**
+	 * 设置是否根据路由URI的scheme裁剪全局过滤器，{@link SchemeAwareFilter} 不适用于路由的scheme时
+	 * 不会加入该路由的过滤器链
+	 * @param pruneByScheme
+	 */
+	public void setPruneByScheme(boolean pruneByScheme) {
+		this.pruneByScheme = pruneByScheme;
+	}
+
+	/**
+	 * 设置是否将路由中连续的 {@link PathRewriteFilter} 合并为一个过滤器，合并后请求只修改一次
+	 * @param fusePathRewrites
+	 */
+	public void setFusePathRewrites(boolean fusePathRewrites) {
+		this.fusePathRewrites = fusePathRewrites;
+	}
+
 	/**
 	 * 包装加载全局的过滤器，将全局过滤器包装成GatewayFilter
 	 * @param filters
@@ -79,29 +144,284 @@ public class FilteringWebHandler implements WebHandler {
 				}).collect(Collectors.toList());
 	}
 
-    /* TODO: relocate @EventListener(RefreshRoutesEvent.class)
-    void handleRefresh() {
-        this.combinedFiltersForRoute.clear();
-    }*/
+	@EventListener(RefreshRoutesEvent.class)
+	/* for testing */ void handleRefresh() {
+		if (!this.warmedUp) {
+			this.combinedFiltersForRoute.clear();
+		}
+	}
+
+	/**
+	 * 构建路由表中每个路由的过滤器链，并移除不在路由表中的路由的过滤器链
+	 * @param routes the routes of the current route table
+	 */
+	void warmup(List<Route> routes) {
+		this.warmedUp = true;
+		Set<String> routeIds = new HashSet<>();
+		for (Route route : routes) {
+			getCombined(route);
+			routeIds.add(route.getId());
+		}
+		this.combinedFiltersForRoute.keySet().retainAll(routeIds);
+	}
+
+	/**
+	 * 路由的过滤器链是否已构建
+	 * @param route
+	 * @return
+	 */
+	/* for testing */ boolean hasCombinedFilters(Route route) {
+		CombinedFilters cached = this.combinedFiltersForRoute.get(route.getId());
+		return cached != null && cached.route == route;
+	}
 
 	@Override
 	public Mono<Void> handle(ServerWebExchange exchange) {
 		//获取请求上下文设置的路由实例
 		Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
-		//获取路由定义下的网关过滤器集合
-		List<GatewayFilter> gatewayFilters = route.getFilters();
+		//获取路由组合排序后的过滤器
+		CombinedFilters combined = getCombined(route);
 
+		if (this.precompiledChains) {
+			//预编译的过滤器链，无需创建链对象
+			return combined.chain.filter(exchange);
+		}
+		//创建过滤器链表对其进行链式调用
+		return new DefaultGatewayFilterChain(combined.filters).filter(exchange);
+	}
+
+	/**
+	 * 获取路由组合排序后的过滤器，结果按路由缓存，路由实例变化时重新构建
+	 * @param route
+	 * @return
+	 */
+	GatewayFilter[] getCombinedFilters(Route route) {
+		return getCombined(route).filters;
+	}
+
+	private CombinedFilters getCombined(Route route) {
+		CombinedFilters cached = this.combinedFiltersForRoute.get(route.getId());
+		if (cached != null && cached.route == route) {
+			return cached;
+		}
+		CombinedFilters combined = new CombinedFilters(route, combineFilters(route));
+		this.combinedFiltersForRoute.put(route.getId(), combined);
+		return combined;
+	}
+
+	private GatewayFilter[] combineFilters(Route route) {
 		//组合全局的过滤器与路由配置的过滤器
-		List<GatewayFilter> combined = new ArrayList<>(this.globalFilters);
+		List<GatewayFilter> combined = new ArrayList<>(getGlobalFilters(route));
 		//添加路由配置过滤器到集合尾部
-		combined.addAll(gatewayFilters);
+		combined.addAll(route.getFilters());
 		//对过滤器进行排序
-		//TODO: needed or cached?
 		AnnotationAwareOrderComparator.sort(combined);
 
-		logger.debug("Sorted gatewayFilterFactories: "+ combined);
-		//创建过滤器链表对其进行链式调用
-		return new DefaultGatewayFilterChain(combined).filter(exchange);
+		if (this.fusePathRewrites) {
+			combined = fusePathRewrites(combined);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Sorted gatewayFilterFactories: "+ combined);
+		}
+		return combined.toArray(new GatewayFilter[0]);
+	}
+
+	/**
+	 * 合并排序后相邻的路径重写过滤器，合并后的过滤器使用第一个过滤器的顺序
+	 * @param filters
+	 * @return
+	 */
+	static List<GatewayFilter> fusePathRewrites(List<GatewayFilter> filters) {
+		List<GatewayFilter> fused = new ArrayList<>(filters.size());
+		int i = 0;
+		while (i < filters.size()) {
+			int end = i;
+			while (end < filters.size() && unwrap(filters.get(end)) instanceof PathRewriteFilter) {
+				end++;
+			}
+			if (end - i < 2) {
+				fused.add(filters.get(i));
+				i++;
+				continue;
+			}
+			List<PathRewriteFilter> rewrites = new ArrayList<>(end - i);
+			for (int j = i; j < end; j++) {
+				rewrites.add((PathRewriteFilter) unwrap(filters.get(j)));
+			}
+			GatewayFilter first = filters.get(i);
+			FusedPathRewriteFilter filter = new FusedPathRewriteFilter(rewrites);
+			fused.add(first instanceof Ordered
+					? new OrderedGatewayFilter(filter, ((Ordered) first).getOrder()) : filter);
+			i = end;
+		}
+		return fused;
+	}
+
+	/**
+	 * 获取适用于路由的全局过滤器
+	 * @param route
+	 * @return
+	 */
+	private List<GatewayFilter> getGlobalFilters(Route route) {
+		if (!this.pruneByScheme) {
+			return this.globalFilters;
+		}
+		//路由过滤器可能修改请求URL的scheme时不裁剪
+		for (GatewayFilter filter : route.getFilters()) {
+			if (unwrap(filter) instanceof SchemeAwareFilter.ChangesScheme) {
+				return this.globalFilters;
+			}
+		}
+		Set<String> schemes = routeSchemes(route.getUri());
+		if (schemes.isEmpty()) {
+			return this.globalFilters;
+		}
+		List<GatewayFilter> filters = new ArrayList<>(this.globalFilters.size());
+		for (GatewayFilter filter : this.globalFilters) {
+			Object delegate = unwrap(filter);
+			if (!(delegate instanceof SchemeAwareFilter)
+					|| !Collections.disjoint(((SchemeAwareFilter) delegate).getRouteSchemes(), schemes)) {
+				filters.add(filter);
+			}
+			else if (logger.isTraceEnabled()) {
+				logger.trace("Route " + route.getId() + " does not apply global filter " + delegate);
+			}
+		}
+		return filters;
+	}
+
+	/**
+	 * 获取路由URI的scheme，例如 lb:ws://service 返回 lb 及 ws
+	 * @param uri
+	 * @return
+	 */
+	static Set<String> routeSchemes(URI uri) {
+		if (uri.getScheme() == null) {
+			return Collections.emptySet();
+		}
+		Set<String> schemes = new HashSet<>();
+		schemes.add(uri.getScheme());
+		String schemeSpecificPart = uri.getSchemeSpecificPart();
+		int colon = schemeSpecificPart.indexOf(':');
+		if (uri.isOpaque() && colon > 0) {
+			schemes.add(schemeSpecificPart.substring(0, colon));
+		}
+		return schemes;
+	}
+
+	/**
+	 * 获取包装过滤器的实际过滤器
+	 * @param filter
+	 * @return
+	 */
+	private static Object unwrap(GatewayFilter filter) {
+		if (filter instanceof OrderedGatewayFilter) {
+			return unwrap(((OrderedGatewayFilter) filter).getDelegate());
+		}
+		if (filter instanceof GatewayFilterAdapter) {
+			return ((GatewayFilterAdapter) filter).delegate;
+		}
+		return filter;
+	}
+
+	/**
+	 * 依次执行多个路径重写，只修改一次请求
+	 */
+	private static class FusedPathRewriteFilter implements PathRewriteFilter {
+
+		private final PathRewriteFilter[] rewrites;
+
+		FusedPathRewriteFilter(List<PathRewriteFilter> rewrites) {
+			this.rewrites = rewrites.toArray(new PathRewriteFilter[0]);
+		}
+
+		@Override
+		public String rewritePath(ServerWebExchange exchange, String rawPath) {
+			String path = rawPath;
+			boolean rewritten = false;
+			for (PathRewriteFilter rewrite : this.rewrites) {
+				String newPath = rewrite.rewritePath(exchange, path);
+				if (newPath != null) {
+					path = newPath;
+					rewritten = true;
+				}
+			}
+			return rewritten ? path : null;
+		}
+
+		@Override
+		public String toString() {
+			return "FusedPathRewriteFilter" + Arrays.toString(this.rewrites);
+		}
+	}
+
+	/**
+	 * 路由及其组合排序后的过滤器
+	 */
+	private static class CombinedFilters {
+
+		private final Route route;
+
+		private final GatewayFilter[] filters;
+
+		/**
+		 * 预编译的过滤器链的头节点
+		 */
+		private final PrecompiledGatewayFilterChain chain;
+
+		CombinedFilters(Route route, GatewayFilter[] filters) {
+			this.route = route;
+			this.filters = filters;
+			this.chain = PrecompiledGatewayFilterChain.of(filters);
+		}
+	}
+
+	/**
+	 * 预编译的过滤器链，每个节点持有过滤器及下一个节点，节点不包含请求状态，
+	 * 按路由构建一次后可被所有请求共享
+	 */
+	private static class PrecompiledGatewayFilterChain implements GatewayFilterChain {
+
+		private static final PrecompiledGatewayFilterChain END = new PrecompiledGatewayFilterChain(null, null);
+
+		private final GatewayFilter filter;
+
+		private final PrecompiledGatewayFilterChain next;
+
+		/**
+		 * 过滤器是否需要 Mono.defer 包装
+		 */
+		private final boolean deferred;
+
+		private PrecompiledGatewayFilterChain(GatewayFilter filter, PrecompiledGatewayFilterChain next) {
+			this.filter = filter;
+			this.next = next;
+			this.deferred = filter != null && !isAssemblySafe(filter);
+		}
+
+		static PrecompiledGatewayFilterChain of(GatewayFilter[] filters) {
+			PrecompiledGatewayFilterChain chain = END;
+			for (int i = filters.length - 1; i >= 0; i--) {
+				chain = new PrecompiledGatewayFilterChain(filters[i], chain);
+			}
+			return chain;
+		}
+
+		private static boolean isAssemblySafe(GatewayFilter filter) {
+			return unwrap(filter) instanceof AssemblySafeFilter;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange) {
+			if (this.filter == null) {
+				return Mono.empty(); // complete
+			}
+			if (this.deferred) {
+				return Mono.defer(() -> this.filter.filter(exchange, this.next));
+			}
+			return this.filter.filter(exchange, this.next);
+		}
 	}
 
 	/**
@@ -114,11 +434,11 @@ public class FilteringWebHandler implements WebHandler {
 		 */
 		private final int index;
 		/**
-		 * 过滤器集合
+		 * 过滤器集合，不可修改
 		 */
-		private final List<GatewayFilter> filters;
+		private final GatewayFilter[] filters;
 
-		public DefaultGatewayFilterChain(List<GatewayFilter> filters) {
+		public DefaultGatewayFilterChain(GatewayFilter[] filters) {
 			this.filters = filters;
 			this.index = 0;
 		}
@@ -133,7 +453,7 @@ public class FilteringWebHandler implements WebHandler {
 			this.index = index;
 		}
 
-		public List<GatewayFilter> getFilters() {
+		public GatewayFilter[] getFilters() {
 			return filters;
 		}
 
@@ -144,9 +464,9 @@ public class FilteringWebHandler implements WebHandler {
 		@Override
 		public Mono<Void> filter(ServerWebExchange exchange) {
 			return Mono.defer(() -> {
-				if (this.index < filters.size()) {
+				if (this.index < filters.length) {
 					//获取当前索引的过滤器
-					GatewayFilter filter = filters.get(this.index);
+					GatewayFilter filter = filters[this.index];
 					//构建当前索引的下一个过滤器的FilterChain
 					DefaultGatewayFilterChain chain = new DefaultGatewayFilterChain(this, this.index + 1);
 					//调用过滤器的filter方法执行过滤器
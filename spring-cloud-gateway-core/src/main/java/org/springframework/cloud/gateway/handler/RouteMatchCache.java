@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 路由匹配结果的缓存，key 为请求的 method、host 及原始 path
+ * Bounded cache of route lookups keyed on the request method, host and raw path.
+ * Once full, the least recently used lookup is evicted.
+ * Only routes whose predicates depend on nothing else may be cached, see
+ * {@link org.springframework.cloud.gateway.handler.predicate.PredicateHints#isCacheable()}.
+ */
+public class RouteMatchCache {
+
+	/**
+	 * 按访问顺序排列的 LRU 缓存，所有访问均需持有其锁
+	 */
+	private final Map<Key, Route> cache;
+
+	/**
+	 * 缓存对应的路由集合，路由集合变化时缓存失效
+	 */
+	private volatile Object generation;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	public RouteMatchCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.cache = new LinkedHashMap<Key, Route>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Route> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * 获取缓存的路由
+	 * @param generation 当前的路由集合
+	 * @param key
+	 * @return 缓存的路由，未命中时返回 null
+	 */
+	public Route get(Object generation, Key key) {
+		if (this.generation != generation) {
+			clear();
+			this.generation = generation;
+		}
+		Route route;
+		synchronized (this.cache) {
+			route = this.cache.get(key);
+		}
+		if (route != null) {
+			this.hits.increment();
+		}
+		else {
+			this.misses.increment();
+		}
+		return route;
+	}
+
+	/**
+	 * 缓存路由，缓存已满时淘汰最久未使用的路由
+	 * @param generation 当前的路由集合
+	 * @param key
+	 * @param route
+	 */
+	public void put(Object generation, Key key, Route route) {
+		if (this.generation == generation) {
+			synchronized (this.cache) {
+				this.cache.put(key, route);
+				// the routes may have been refreshed concurrently
+				if (this.generation != generation) {
+					this.cache.remove(key, route);
+				}
+			}
+		}
+	}
+
+	@EventListener(RefreshRoutesEvent.class)
+	public void clear() {
+		synchronized (this.cache) {
+			this.cache.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.cache) {
+			return this.cache.size();
+		}
+	}
+
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	public static Key key(ServerWebExchange exchange) {
+		ServerHttpRequest request = exchange.getRequest();
+		return new Key(request.getMethodValue(), request.getHeaders().getFirst("Host"),
+				request.getURI().getRawPath());
+	}
+
+	public static final class Key {
+
+		private final String method;
+
+		private final String host;
+
+		private final String path;
+
+		private final int hash;
+
+		Key(String method, String host, String path) {
+			this.method = method;
+			this.host = host;
+			this.path = path;
+			this.hash = Objects.hash(method, host, path);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Key key = (Key) o;
+			return Objects.equals(method, key.method) &&
+					Objects.equals(host, key.host) &&
+					Objects.equals(path, key.path);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public String toString() {
+			return method + " " + host + path;
+		}
+	}
+}
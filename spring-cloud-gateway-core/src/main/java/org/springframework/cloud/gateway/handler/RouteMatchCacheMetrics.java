@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 路由匹配缓存的监控指标
+ * Publishes {@link RouteMatchCache} hits, misses and size to Micrometer.
+ */
+public class RouteMatchCacheMetrics implements MeterBinder {
+
+	private final RouteMatchCache cache;
+
+	public RouteMatchCacheMetrics(RouteMatchCache cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("gateway.route.cache.requests", this.cache, RouteMatchCache::getHits)
+				.tag("result", "hit")
+				.description("Route lookups served from the route match cache")
+				.register(registry);
+		FunctionCounter.builder("gateway.route.cache.requests", this.cache, RouteMatchCache::getMisses)
+				.tag("result", "miss")
+				.description("Route lookups not found in the route match cache")
+				.register(registry);
+		Gauge.builder("gateway.route.cache.size", this.cache, RouteMatchCache::size)
+				.description("Number of cached route lookups")
+				.register(registry);
+	}
+}
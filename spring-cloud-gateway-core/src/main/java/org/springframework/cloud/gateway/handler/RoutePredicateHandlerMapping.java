@@ -19,7 +19,9 @@ package org.springframework.cloud.gateway.handler;
 
 import java.util.function.Function;
 
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteIndex;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
@@ -38,6 +40,7 @@ public class RoutePredicateHandlerMapping extends AbstractHandlerMapping {
 
 	private final FilteringWebHandler webHandler;
 	private final RouteLocator routeLocator;
+	private RouteMatchCache routeMatchCache;
 
 	public RoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator) {
 		this.webHandler = webHandler;
@@ -46,6 +49,14 @@ public class RoutePredicateHandlerMapping extends AbstractHandlerMapping {
 		setOrder(1);
 	}
 
+	/**
+	 * 设置路由匹配结果的缓存，只对支持索引的路由定位器生效
+	 * @param routeMatchCache the cache, or {@code null} to disable caching
+	 */
+	public void setRouteMatchCache(RouteMatchCache routeMatchCache) {
+		this.routeMatchCache = routeMatchCache;
+	}
+
 	@Override
 	protected Mono<?> getHandlerInternal(ServerWebExchange exchange) {
 		//设置mapping到上下文环境
@@ -94,17 +105,7 @@ public class RoutePredicateHandlerMapping extends AbstractHandlerMapping {
 
 	protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
 		//通过路由定位器获取路由信息
-		return this.routeLocator.getRoutes()
-				.filter(route -> {
-					// add the current route we are testing
-					exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, route.getId());
-					//返回通过谓语过滤的路由信息
-					return route.getPredicate().test(exchange);
-				})
-				// .defaultIfEmpty() put a static Route not found
-				// or .switchIfEmpty()
-				// .switchIfEmpty(Mono.<Route>empty().log("noroute"))
-				.next()
+		return findRoute(exchange)
 				//TODO: error handling
 				.map(route -> {
 					if (logger.isDebugEnabled()) {
@@ -121,6 +122,52 @@ public class RoutePredicateHandlerMapping extends AbstractHandlerMapping {
 			}*/
 	}
 
+	private Mono<Route> findRoute(ServerWebExchange exchange) {
+		if (this.routeLocator instanceof CachingRouteLocator) {
+			//路由定位器支持索引时只校验可能匹配的路由
+			return ((CachingRouteLocator) this.routeLocator).getRouteIndex()
+					.flatMap(index -> Mono.justOrEmpty(findRoute(index, exchange)));
+		}
+		return this.routeLocator.getRoutes()
+				.filter(route -> testRoute(route, exchange))
+				// .defaultIfEmpty() put a static Route not found
+				// or .switchIfEmpty()
+				// .switchIfEmpty(Mono.<Route>empty().log("noroute"))
+				.next();
+	}
+
+	private Route findRoute(RouteIndex index, ServerWebExchange exchange) {
+		RouteMatchCache.Key key = null;
+		if (this.routeMatchCache != null) {
+			key = RouteMatchCache.key(exchange);
+			Route cached = this.routeMatchCache.get(index, key);
+			// the predicate is tested again so that it can populate exchange attributes
+			if (cached != null && testRoute(cached, exchange)) {
+				return cached;
+			}
+		}
+
+		//只有之前校验的路由都可缓存时，匹配结果才可以缓存
+		boolean cacheable = key != null;
+		for (Route route : index.getCandidates(exchange)) {
+			cacheable = cacheable && route.getPredicateHints().isCacheable();
+			if (testRoute(route, exchange)) {
+				if (cacheable) {
+					this.routeMatchCache.put(index, key, route);
+				}
+				return route;
+			}
+		}
+		return null;
+	}
+
+	private boolean testRoute(Route route, ServerWebExchange exchange) {
+		// add the current route we are testing
+		exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, route.getId());
+		//返回通过谓语过滤的路由信息
+		return route.getPredicate().test(exchange);
+	}
+
 	/**
 	 * Validate the given handler against the current request.
 	 * <p>The default implementation is empty. Can be overridden in subclasses,
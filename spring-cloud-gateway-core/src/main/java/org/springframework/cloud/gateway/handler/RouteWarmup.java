@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.RouteRefreshListener;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+
+/**
+ * 启动预热，在web服务器开始监听之前编译路由表并构建每个路由的过滤器链，
+ * 避免首个请求承担路由加载的开销。预热的路由表即启动时加载的路由表，应用上下文刷新完成时不再重复刷新路由，
+ * 之后每次发布新的路由表时重新构建过滤器链
+ * Compiles the route table and builds the filter chain of every route once all
+ * singletons are created, which is before the web server starts accepting requests.
+ * The filter chains are built again whenever a {@link CachingRouteLocator} publishes
+ * a new route table.
+ */
+public class RouteWarmup implements SmartInitializingSingleton, ApplicationContextAware {
+
+	private static final Log log = LogFactory.getLog(RouteWarmup.class);
+
+	private final RouteLocator routeLocator;
+
+	private final FilteringWebHandler webHandler;
+
+	private RouteRefreshListener routeRefreshListener;
+
+	private ApplicationContext applicationContext;
+
+	public RouteWarmup(RouteLocator routeLocator, FilteringWebHandler webHandler) {
+		this.routeLocator = routeLocator;
+		this.webHandler = webHandler;
+	}
+
+	/**
+	 * 设置路由刷新监听器，预热完成后跳过应用上下文刷新完成时的路由刷新
+	 * @param routeRefreshListener
+	 */
+	public void setRouteRefreshListener(RouteRefreshListener routeRefreshListener) {
+		this.routeRefreshListener = routeRefreshListener;
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		warmup();
+		if (this.routeRefreshListener != null) {
+			this.routeRefreshListener.skipContextRefresh(this.applicationContext);
+		}
+		if (this.routeLocator instanceof CachingRouteLocator) {
+			((CachingRouteLocator) this.routeLocator).addListener(this::warmupFilterChains);
+		}
+	}
+
+	/**
+	 * 预热路由表及过滤器链，并记录各阶段耗时
+	 * @return 预热的路由数量
+	 */
+	public int warmup() {
+		long start = System.nanoTime();
+		//编译路由定义，创建并绑定谓语及过滤器的配置，构建路由索引
+		List<Route> routes;
+		if (this.routeLocator instanceof CachingRouteLocator) {
+			routes = ((CachingRouteLocator) this.routeLocator).getRouteIndex().block().getRoutes();
+		}
+		else {
+			routes = this.routeLocator.getRoutes().collectList().block();
+		}
+		long routesDone = System.nanoTime();
+
+		//组合并排序每个路由的过滤器链
+		warmupFilterChains(routes);
+		long chainsDone = System.nanoTime();
+
+		if (log.isInfoEnabled()) {
+			log.info("Warmed up " + routes.size() + " routes in " + millis(chainsDone - start)
+					+ "ms (route table " + millis(routesDone - start)
+					+ "ms, filter chains " + millis(chainsDone - routesDone) + "ms)");
+		}
+		return routes.size();
+	}
+
+	private void warmupFilterChains(List<Route> routes) {
+		if (this.routeLocator instanceof CachingRouteLocator) {
+			this.webHandler.warmup(routes);
+		}
+		else {
+			for (Route route : routes) {
+				this.webHandler.getCombinedFilters(route);
+			}
+		}
+	}
+
+	private static long millis(long nanos) {
+		return nanos / 1000000;
+	}
+}
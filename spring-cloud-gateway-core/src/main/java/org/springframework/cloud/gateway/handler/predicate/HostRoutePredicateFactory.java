@@ -35,12 +35,18 @@ public class HostRoutePredicateFactory extends AbstractRoutePredicateFactory<Hos
 
 	private PathMatcher pathMatcher = new AntPathMatcher(".");
 
+	/**
+	 * 是否为默认的匹配器，只有默认匹配器的语义可用于路由索引
+	 */
+	private boolean indexable = true;
+
 	public HostRoutePredicateFactory() {
 		super(Config.class);
 	}
 
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		this.indexable = false;
 	}
 
 	@Override
@@ -50,12 +56,14 @@ public class HostRoutePredicateFactory extends AbstractRoutePredicateFactory<Hos
 
 	@Override
 	public Predicate<ServerWebExchange> apply(Config config) {
-		return exchange -> {
+		PredicateHints hints = this.indexable
+				? PredicateHints.hostPattern(config.getPattern()) : PredicateHints.NONE;
+		return PredicateHints.hinted(exchange -> {
 			//获取请求host信息
 			String host = exchange.getRequest().getHeaders().getFirst("Host");
 			//判断host是否与配置信息匹配
 			return this.pathMatcher.match(config.getPattern(), host);
-		};
+		}, hints);
 	}
 
 	@Validated
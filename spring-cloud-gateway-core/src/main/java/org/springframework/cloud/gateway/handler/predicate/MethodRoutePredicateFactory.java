@@ -43,12 +43,12 @@ public class MethodRoutePredicateFactory extends AbstractRoutePredicateFactory<M
 
 	@Override
 	public Predicate<ServerWebExchange> apply(Config config) {
-		return exchange -> {
+		return PredicateHints.hinted(exchange -> {
 			//获取当前请求的HttpMethod
 			HttpMethod requestMethod = exchange.getRequest().getMethod();
 			//校验请求HttpMethod与配置是否一致
 			return requestMethod == config.getMethod();
-		};
+		}, PredicateHints.DETERMINISTIC);
 	}
 
 	public static class Config {
@@ -63,7 +63,10 @@ public class PathRoutePredicateFactory extends AbstractRoutePredicateFactory<Pat
 			//解析pattern生成pathPattern
 			config.pathPattern = this.pathPatternParser.parse(config.pattern);
 		}
-		return exchange -> {
+		//大小写不敏感时路径前缀无法用于索引
+		PredicateHints hints = this.pathPatternParser.isCaseSensitive()
+				? PredicateHints.pathPattern(config.pattern) : PredicateHints.DETERMINISTIC;
+		return PredicateHints.hinted(exchange -> {
 			//解析当前请求的uri
 			PathContainer path = parsePath(exchange.getRequest().getURI().getPath());
 			//匹配校验
@@ -77,7 +80,7 @@ public class PathRoutePredicateFactory extends AbstractRoutePredicateFactory<Pat
 			} else {
 				return false;
 			}
-		};
+		}, hints);
 	}
 
 	private static void traceMatch(String prefix, Object desired, Object actual, boolean match) {
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 谓语的索引提示信息，描述路由匹配时的必要条件，用于构建路由索引
+ * Describes necessary conditions of a route predicate so that routes can be
+ * indexed. Hints never make a predicate match, they only allow routes that
+ * can not possibly match to be skipped.
+ */
+public final class PredicateHints {
+
+	/**
+	 * 没有任何提示信息
+	 */
+	public static final PredicateHints NONE = new PredicateHints(null, null, false);
+
+	/**
+	 * 没有约束，但结果只取决于请求的 method、host 及 path，可以缓存匹配结果
+	 */
+	public static final PredicateHints DETERMINISTIC = new PredicateHints(null, null, true);
+
+	/**
+	 * 路径模式集合，请求路径至少需要匹配其中一个，null 表示没有约束
+	 */
+	private final List<String> pathPatterns;
+
+	/**
+	 * host模式集合，请求host至少需要匹配其中一个，null 表示没有约束
+	 */
+	private final List<String> hostPatterns;
+
+	/**
+	 * 谓语结果是否只取决于请求的 method、host 及 path
+	 */
+	private final boolean cacheable;
+
+	private PredicateHints(List<String> pathPatterns, List<String> hostPatterns, boolean cacheable) {
+		this.pathPatterns = pathPatterns;
+		this.hostPatterns = hostPatterns;
+		this.cacheable = cacheable;
+	}
+
+	public static PredicateHints pathPattern(String pattern) {
+		return new PredicateHints(Collections.singletonList(pattern), null, true);
+	}
+
+	public static PredicateHints hostPattern(String pattern) {
+		return new PredicateHints(null, Collections.singletonList(pattern), true);
+	}
+
+	/**
+	 * 获取谓语的提示信息，未携带提示信息的谓语返回 {@link #NONE}
+	 * @param predicate
+	 * @return
+	 */
+	public static PredicateHints of(Predicate<?> predicate) {
+		if (predicate instanceof Hinted) {
+			return ((Hinted) predicate).getHints();
+		}
+		return NONE;
+	}
+
+	/**
+	 * 包装谓语，使其携带提示信息
+	 * @param predicate
+	 * @param hints
+	 * @return
+	 */
+	public static Predicate<ServerWebExchange> hinted(Predicate<ServerWebExchange> predicate,
+													  PredicateHints hints) {
+		return new HintedPredicate(predicate, hints);
+	}
+
+	public List<String> getPathPatterns() {
+		return pathPatterns;
+	}
+
+	public boolean hasPathPatterns() {
+		return this.pathPatterns != null;
+	}
+
+	public List<String> getHostPatterns() {
+		return hostPatterns;
+	}
+
+	public boolean hasHostPatterns() {
+		return this.hostPatterns != null;
+	}
+
+	public boolean isCacheable() {
+		return cacheable;
+	}
+
+	/**
+	 * 短路逻辑AND，两个约束都必须满足，保留更严格的一个
+	 * @param other
+	 * @return
+	 */
+	public PredicateHints and(PredicateHints other) {
+		return new PredicateHints(narrowest(this.pathPatterns, other.pathPatterns),
+				narrowest(this.hostPatterns, other.hostPatterns),
+				this.cacheable && other.cacheable);
+	}
+
+	/**
+	 * 短路逻辑OR，只要有一方没有约束，结果即没有约束
+	 * @param other
+	 * @return
+	 */
+	public PredicateHints or(PredicateHints other) {
+		return new PredicateHints(union(this.pathPatterns, other.pathPatterns),
+				union(this.hostPatterns, other.hostPatterns),
+				this.cacheable && other.cacheable);
+	}
+
+	/**
+	 * 逻辑非，约束无法取反，结果没有约束
+	 * @return
+	 */
+	public PredicateHints negate() {
+		return this.cacheable ? DETERMINISTIC : NONE;
+	}
+
+	private static List<String> narrowest(List<String> left, List<String> right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+		return right.size() < left.size() ? right : left;
+	}
+
+	private static List<String> union(List<String> left, List<String> right) {
+		if (left == null || right == null) {
+			return null;
+		}
+		List<String> union = new ArrayList<>(left);
+		union.addAll(right);
+		return Collections.unmodifiableList(union);
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this)
+				.append("pathPatterns", pathPatterns)
+				.append("hostPatterns", hostPatterns)
+				.append("cacheable", cacheable)
+				.toString();
+	}
+
+	/**
+	 * 携带提示信息的谓语
+	 */
+	public interface Hinted {
+		PredicateHints getHints();
+	}
+
+	private static class HintedPredicate implements Predicate<ServerWebExchange>, Hinted {
+
+		private final Predicate<ServerWebExchange> delegate;
+
+		private final PredicateHints hints;
+
+		HintedPredicate(Predicate<ServerWebExchange> delegate, PredicateHints hints) {
+			this.delegate = delegate;
+			this.hints = hints;
+		}
+
+		@Override
+		public boolean test(ServerWebExchange exchange) {
+			return this.delegate.test(exchange);
+		}
+
+		@Override
+		public PredicateHints getHints() {
+			return this.hints;
+		}
+
+		@Override
+		public String toString() {
+			return this.delegate.toString();
+		}
+	}
+}
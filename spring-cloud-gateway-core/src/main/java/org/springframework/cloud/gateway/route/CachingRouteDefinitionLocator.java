@@ -17,38 +17,67 @@
 
 package org.springframework.cloud.gateway.route;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
-import reactor.cache.CacheFlux;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 
 /**
- * RouteDefinitionLocator 包装实现类，实现了路由定义的本地缓存功能
+ * RouteDefinitionLocator 包装实现类，实现了路由定义的本地缓存功能。
+ * 路由定义以不可变快照的形式发布，刷新时构建完成后原子替换，
+ * 刷新期间读取的路由定义等待刷新完成，避免基于旧的路由定义构建路由表
  * @author Spencer Gibb
  */
 public class CachingRouteDefinitionLocator implements RouteDefinitionLocator {
 
+	private static final Log log = LogFactory.getLog(CachingRouteDefinitionLocator.class);
+
 	/**
 	 * 实际路由定义定位器
 	 */
 	private final RouteDefinitionLocator delegate;
 
 	private final Flux<RouteDefinition> routeDefinitions;
+
+	/**
+	 * 当前发布的路由定义快照，首次加载完成前为 null
+	 */
+	private volatile Mono<List<RouteDefinition>> snapshot;
+
+	/**
+	 * 首次加载路由定义，加载失败时下次请求重新加载
+	 */
+	private Mono<List<RouteDefinition>> initialLoad;
+
 	/**
-	 * 路由定义的本地缓存
+	 * 正在执行的刷新，没有时为 null
 	 */
-	private final Map<String, List> cache = new HashMap<>();
+	private volatile Mono<List<RouteDefinition>> pendingLoad;
+
+	/**
+	 * 已发起的加载次数，用于丢弃过期的加载结果
+	 */
+	private final AtomicLong loadRequests = new AtomicLong();
+
+	/**
+	 * 已发布的快照对应的加载序号
+	 */
+	private long publishedRequest;
+
+	private List<RouteDefinition> published;
 
 	public CachingRouteDefinitionLocator(RouteDefinitionLocator delegate) {
 		this.delegate = delegate;
-		routeDefinitions = CacheFlux.lookup(cache, "routeDefs", RouteDefinition.class)
-				.onCacheMissResume(() -> this.delegate.getRouteDefinitions());
-
+		this.routeDefinitions = Flux.defer(() -> current().flatMapIterable(definitions -> definitions));
 	}
 
 	@Override
@@ -57,16 +86,87 @@ public class CachingRouteDefinitionLocator implements RouteDefinitionLocator {
 	}
 
 	/**
-	 * Clears the cache of routeDefinisions
+	 * Reloads the route definitions. Route definitions read while the reload is
+	 * in flight are those of the reload, so that a route table rebuilt on the same
+	 * refresh does not see the previous definitions. A failed reload keeps the
+	 * current definitions.
 	 * @return routeDefinitions flux
 	 */
 	public Flux<RouteDefinition> refresh() {
-		this.cache.clear();
-		return this.routeDefinitions;
+		Mono<List<RouteDefinition>> load = load().cache();
+		this.pendingLoad = load;
+		load.subscribe(definitions -> loadCompleted(load), e -> {
+			log.error("Error reloading route definitions", e);
+			loadCompleted(load);
+		});
+		return load.flatMapIterable(definitions -> definitions);
+	}
+
+	private synchronized void loadCompleted(Mono<List<RouteDefinition>> load) {
+		if (this.pendingLoad == load) {
+			this.pendingLoad = null;
+		}
+	}
+
+	private Mono<List<RouteDefinition>> current() {
+		Mono<List<RouteDefinition>> pending = this.pendingLoad;
+		if (pending != null) {
+			return pending;
+		}
+		Mono<List<RouteDefinition>> current = this.snapshot;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (this.snapshot != null) {
+				return this.snapshot;
+			}
+			if (this.initialLoad == null) {
+				this.initialLoad = load()
+						.doOnError(e -> resetInitialLoad())
+						.cache();
+			}
+			return this.initialLoad;
+		}
+	}
+
+	private synchronized void resetInitialLoad() {
+		this.initialLoad = null;
+	}
+
+	private Mono<List<RouteDefinition>> load() {
+		return Mono.defer(() -> {
+			long request = this.loadRequests.incrementAndGet();
+			return this.delegate.getRouteDefinitions()
+					.collectList()
+					.map(definitions -> publish(request, Collections.unmodifiableList(definitions)));
+		});
+	}
+
+	/**
+	 * 发布新加载的路由定义，比已发布快照更早发起的加载结果会被丢弃
+	 * @param request 加载序号
+	 * @param definitions
+	 * @return 当前发布的路由定义
+	 */
+	private synchronized List<RouteDefinition> publish(long request, List<RouteDefinition> definitions) {
+		if (request < this.publishedRequest) {
+			// a load started later has already been published
+			return this.published;
+		}
+		this.publishedRequest = request;
+		this.published = definitions;
+		this.snapshot = Mono.just(definitions);
+		this.initialLoad = null;
+		return definitions;
 	}
 
+	/**
+	 * 先于 {@link CachingRouteLocator} 处理刷新事件，路由表重建时读取的是正在刷新的路由定义
+	 */
 	@EventListener(RefreshRoutesEvent.class)
-    /* for testing */ void handleRefresh() {
-        refresh();
-    }
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	/* for testing */ void handleRefresh() {
+		refresh();
+	}
 }
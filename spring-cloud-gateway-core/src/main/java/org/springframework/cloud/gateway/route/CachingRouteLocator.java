@@ -17,23 +17,32 @@
 
 package org.springframework.cloud.gateway.route;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
-import reactor.cache.CacheFlux;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 
 /**
- * 路由定位器的包装类，实现了路由的本地缓存功能
+ * 路由定位器的包装类，实现了路由的本地缓存功能。
+ * 路由表以不可变快照的形式发布，刷新时在后台构建新的路由表，构建完成后原子替换，
+ * 刷新期间的请求继续使用旧的路由表
  * @author Spencer Gibb
  */
 public class CachingRouteLocator implements RouteLocator {
 
+	private static final Log log = LogFactory.getLog(CachingRouteLocator.class);
+
 	/**
 	 * 目标路由定位器
 	 */
@@ -47,15 +56,45 @@ public class CachingRouteLocator implements RouteLocator {
 	private final Flux<Route> routes;
 
 	/**
-	 * 本地缓存，用于缓存路由定位器获取的路由集合
-	 *
+	 * 当前发布的路由表快照，首次加载完成前为 null
 	 */
-	private final Map<String, List> cache = new HashMap<>();
+	private volatile RouteTable routeTable;
+
+	/**
+	 * 首次加载路由表，加载失败时下次请求重新加载
+	 */
+	private Mono<RouteTable> initialLoad;
+
+	/**
+	 * 已发起的构建次数，用于丢弃过期的构建结果
+	 */
+	private final AtomicLong rebuildRequests = new AtomicLong();
+
+	/**
+	 * 已发布的路由表对应的构建序号
+	 */
+	private long publishedRequest;
+
+	private final AtomicLong rebuildCount = new AtomicLong();
+
+	private final AtomicLong rebuildTotalNanos = new AtomicLong();
+
+	private volatile long lastRebuildNanos;
+
+	/**
+	 * 执行刷新的线程，避免在发布刷新事件的线程（可能是 Netty 的事件循环线程）上构建路由表
+	 */
+	private Scheduler refreshScheduler = Schedulers.elastic();
+
+	/**
+	 * 路由表发布时的回调
+	 */
+	private final List<Consumer<List<Route>>> listeners = new CopyOnWriteArrayList<>();
 
 	public CachingRouteLocator(RouteLocator delegate) {
 		this.delegate = delegate;
-		routes = CacheFlux.lookup(cache, "routes", Route.class)
-				.onCacheMissResume(() -> this.delegate.getRoutes().sort(AnnotationAwareOrderComparator.INSTANCE));
+		this.routes = Flux.defer(() -> currentRouteTable()
+				.flatMapIterable(table -> table.index.getRoutes()));
 	}
 
 	@Override
@@ -64,16 +103,166 @@ public class CachingRouteLocator implements RouteLocator {
 	}
 
 	/**
-	 * Clears the routes cache
+	 * 获取当前缓存路由的索引
+	 * @return routes index mono
+	 */
+	public Mono<RouteIndex> getRouteIndex() {
+		RouteTable table = this.routeTable;
+		if (table != null) {
+			return table.indexMono;
+		}
+		return currentRouteTable().map(t -> t.index);
+	}
+
+	/**
+	 * 注册路由表发布时的回调，回调在构建路由表的线程上执行，已发布的路由表不会回调
+	 * @param listener called with the routes of every route table published later on
+	 */
+	public void addListener(Consumer<List<Route>> listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * 设置执行刷新的线程
+	 * @param refreshScheduler
+	 */
+	public void setRefreshScheduler(Scheduler refreshScheduler) {
+		this.refreshScheduler = refreshScheduler;
+	}
+
+	/**
+	 * Rebuilds the route table in the background on the refresh scheduler. The
+	 * current table is served until the new one is complete, a failed rebuild
+	 * keeps the current table. A {@link CachingRouteDefinitionLocator} reloading
+	 * on the same event is ordered first, so the rebuild waits for its reload.
 	 * @return routes flux
 	 */
 	public Flux<Route> refresh() {
-		this.cache.clear();
-		return this.routes;
+		Mono<RouteTable> rebuild = rebuild().subscribeOn(this.refreshScheduler).cache();
+		rebuild.subscribe(null, e -> log.error("Error rebuilding the route table, keeping generation "
+				+ getGeneration(), e));
+		return rebuild.flatMapIterable(table -> table.index.getRoutes());
+	}
+
+	/**
+	 * 获取当前路由表的版本号，每次发布新的路由表时加一，尚未加载时为 0
+	 * @return
+	 */
+	public long getGeneration() {
+		RouteTable table = this.routeTable;
+		return table != null ? table.generation : 0;
+	}
+
+	/**
+	 * 获取当前路由表中路由的数量
+	 * @return
+	 */
+	public int getRouteCount() {
+		RouteTable table = this.routeTable;
+		return table != null ? table.index.getRoutes().size() : 0;
+	}
+
+	public long getRebuildCount() {
+		return this.rebuildCount.get();
+	}
+
+	public double getRebuildTotalTimeNanos() {
+		return this.rebuildTotalNanos.get();
+	}
+
+	public long getLastRebuildNanos() {
+		return this.lastRebuildNanos;
+	}
+
+	private Mono<RouteTable> currentRouteTable() {
+		RouteTable table = this.routeTable;
+		if (table != null) {
+			return table.mono;
+		}
+		synchronized (this) {
+			if (this.routeTable != null) {
+				return this.routeTable.mono;
+			}
+			if (this.initialLoad == null) {
+				this.initialLoad = rebuild()
+						.doOnError(e -> resetInitialLoad())
+						.cache();
+			}
+			return this.initialLoad;
+		}
+	}
+
+	private synchronized void resetInitialLoad() {
+		this.initialLoad = null;
+	}
+
+	private Mono<RouteTable> rebuild() {
+		return Mono.defer(() -> {
+			long request = this.rebuildRequests.incrementAndGet();
+			long start = System.nanoTime();
+			return this.delegate.getRoutes()
+					.sort(AnnotationAwareOrderComparator.INSTANCE)
+					.collectList()
+					.map(routes -> {
+						RouteIndex index = new RouteIndex(routes);
+						RouteTable table = publish(request, index, System.nanoTime() - start);
+						if (table.index == index) {
+							this.listeners.forEach(listener -> listener.accept(index.getRoutes()));
+						}
+						return table;
+					});
+		});
+	}
+
+	/**
+	 * 发布新构建的路由表，比已发布路由表更早发起的构建结果会被丢弃
+	 * @param request 构建序号
+	 * @param index
+	 * @param duration 构建耗时，单位纳秒
+	 * @return 当前发布的路由表
+	 */
+	private synchronized RouteTable publish(long request, RouteIndex index, long duration) {
+		this.rebuildCount.incrementAndGet();
+		this.rebuildTotalNanos.addAndGet(duration);
+		this.lastRebuildNanos = duration;
+		if (request < this.publishedRequest) {
+			// a rebuild started later has already been published
+			return this.routeTable;
+		}
+		this.publishedRequest = request;
+		RouteTable table = new RouteTable(index, getGeneration() + 1);
+		this.routeTable = table;
+		this.initialLoad = null;
+		if (log.isDebugEnabled()) {
+			log.debug("Published route table generation " + table.generation + " with "
+					+ index.getRoutes().size() + " routes in " + duration / 1000000 + "ms");
+		}
+		return table;
 	}
 
 	@EventListener(RefreshRoutesEvent.class)
 	/* for testing */ void handleRefresh() {
 		refresh();
 	}
+
+	/**
+	 * 不可变的路由表快照
+	 */
+	private static final class RouteTable {
+
+		private final RouteIndex index;
+
+		private final long generation;
+
+		private final Mono<RouteTable> mono;
+
+		private final Mono<RouteIndex> indexMono;
+
+		RouteTable(RouteIndex index, long generation) {
+			this.index = index;
+			this.generation = generation;
+			this.mono = Mono.just(this);
+			this.indexMono = Mono.just(index);
+		}
+	}
 }
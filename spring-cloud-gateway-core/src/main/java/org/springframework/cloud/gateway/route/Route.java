@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
 
+import org.springframework.cloud.gateway.handler.predicate.PredicateHints;
 import org.springframework.core.Ordered;
 import org.springframework.util.Assert;
 import org.springframework.web.server.ServerWebExchange;
@@ -69,6 +70,16 @@ public class Route implements Ordered {
 	 */
 	private final List<GatewayFilter> gatewayFilters;
 
+	/**
+	 * 谓语的索引提示信息，用于构建路由索引
+	 */
+	private final PredicateHints predicateHints;
+
+	/**
+	 * 预先解析的路由目标地址
+	 */
+	private final RouteTarget target;
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -80,12 +91,15 @@ public class Route implements Ordered {
 				.order(routeDefinition.getOrder());
 	}
 
-	private Route(String id, URI uri, int order, Predicate<ServerWebExchange> predicate, List<GatewayFilter> gatewayFilters) {
+	private Route(String id, URI uri, int order, Predicate<ServerWebExchange> predicate,
+				  List<GatewayFilter> gatewayFilters, PredicateHints predicateHints) {
 		this.id = id;
 		this.uri = uri;
 		this.order = order;
 		this.predicate = predicate;
 		this.gatewayFilters = gatewayFilters;
+		this.predicateHints = predicateHints;
+		this.target = RouteTarget.of(uri);
 	}
 
 	public static class Builder {
@@ -97,6 +111,8 @@ public class Route implements Ordered {
 
 		private Predicate<ServerWebExchange> predicate;
 
+		private PredicateHints predicateHints = PredicateHints.NONE;
+
 		private List<GatewayFilter> gatewayFilters = new ArrayList<>();
 
 		private Builder() {}
@@ -138,24 +154,28 @@ public class Route implements Ordered {
 
 		public Builder predicate(Predicate<ServerWebExchange> predicate) {
 			this.predicate = predicate;
+			this.predicateHints = PredicateHints.of(predicate);
 			return this;
 		}
 
 		public Builder and(Predicate<ServerWebExchange> predicate) {
 			Assert.notNull(this.predicate, "can not call and() on null predicate");
 			this.predicate = this.predicate.and(predicate);
+			this.predicateHints = this.predicateHints.and(PredicateHints.of(predicate));
 			return this;
 		}
 
 		public Builder or(Predicate<ServerWebExchange> predicate) {
 			Assert.notNull(this.predicate, "can not call or() on null predicate");
 			this.predicate = this.predicate.or(predicate);
+			this.predicateHints = this.predicateHints.or(PredicateHints.of(predicate));
 			return this;
 		}
 
 		public Builder negate() {
 			Assert.notNull(this.predicate, "can not call negate() on null predicate");
 			this.predicate = this.predicate.negate();
+			this.predicateHints = this.predicateHints.negate();
 			return this;
 		}
 
@@ -183,7 +203,8 @@ public class Route implements Ordered {
 			Assert.notNull(this.uri, "uri can not be null");
 			Assert.notNull(this.predicate, "predicate can not be null");
 
-			return new Route(this.id, this.uri, this.order, this.predicate, this.gatewayFilters);
+			return new Route(this.id, this.uri, this.order, this.predicate, this.gatewayFilters,
+					this.predicateHints);
 		}
 	}
 
@@ -207,6 +228,14 @@ public class Route implements Ordered {
 		return Collections.unmodifiableList(this.gatewayFilters);
 	}
 
+	public PredicateHints getPredicateHints() {
+		return this.predicateHints;
+	}
+
+	public RouteTarget getTarget() {
+		return this.target;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -17,11 +17,17 @@
 
 package org.springframework.cloud.gateway.route;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -40,16 +46,20 @@ import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
 import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
 import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.support.Configurable;
+import org.springframework.cloud.gateway.support.ConfigurationBindingCache;
 import org.springframework.cloud.gateway.support.ConfigurationUtils;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.validation.Validator;
 import org.springframework.web.server.ServerWebExchange;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * 路由定位器
@@ -58,6 +68,8 @@ import reactor.core.publisher.Flux;
  * @author Spencer Gibb
  */
 public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAware, ApplicationEventPublisherAware {
+	private static final int BINDING_CACHE_MAX_SIZE = 10000;
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	/**
@@ -82,10 +94,6 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 	 * 网关配置信息
 	 */
 	private final GatewayProperties gatewayProperties;
-	/**
-	 *
-	 */
-	private final SpelExpressionParser parser = new SpelExpressionParser();
 	/**
 	 * BeanFactory
 	 */
@@ -94,6 +102,19 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 	 * 事件发布
 	 */
 	private ApplicationEventPublisher publisher;
+	/**
+	 * 上一代编译结果，用于增量编译
+	 * The routes compiled by the last complete {@link #getRoutes()} pass.
+	 */
+	private volatile CompiledRoutes compiledRoutes = CompiledRoutes.EMPTY;
+	/**
+	 * 配置绑定缓存，每次编译路由时清空
+	 */
+	private final ConfigurationBindingCache bindingCache = new ConfigurationBindingCache(BINDING_CACHE_MAX_SIZE);
+	/**
+	 * 并发编译时当前线程暂存的事件，编译完成后按路由声明顺序在同一线程上发布
+	 */
+	private final ThreadLocal<List<ApplicationEvent>> deferredEvents = new ThreadLocal<>();
 
 	public RouteDefinitionRouteLocator(RouteDefinitionLocator routeDefinitionLocator,
 									   List<RoutePredicateFactory> predicates,
@@ -135,17 +156,23 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 
 	@Override
 	public Flux<Route> getRoutes() {
-		//获取到所有的RouteDefinition
-		return this.routeDefinitionLocator.getRouteDefinitions()
-				//遍历转换成对应的Route信息
-				.map(this::convertToRoute)
-				//TODO: error handling
-				.map(route -> {
-					if (logger.isDebugEnabled()) {
-						logger.debug("RouteDefinition matched: " + route.getId());
-					}
-					return route;
-				});
+		GatewayProperties.RouteCompilation compilation = this.gatewayProperties.getRouteCompilation();
+		Flux<Route> routes = Flux.defer(() -> {
+			this.bindingCache.clear();
+			if (compilation.isIncremental()) {
+				return compileIncrementally(compilation.getParallelism());
+			}
+			//获取到所有的RouteDefinition，遍历转换成对应的Route信息
+			return compile(this.routeDefinitionLocator.getRouteDefinitions(),
+					this::convertToRoute, compilation.getParallelism());
+		});
+		//TODO: error handling
+		return routes.map(route -> {
+			if (logger.isDebugEnabled()) {
+				logger.debug("RouteDefinition matched: " + route.getId());
+			}
+			return route;
+		});
 
 
 		/* TODO: trace logging
@@ -154,19 +181,179 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 			}*/
 	}
 
+	/**
+	 * 增量编译，仅重新转换内容发生变化的RouteDefinition，其余复用上一代的Route
+	 * @return
+	 */
+	private Flux<Route> compileIncrementally(int parallelism) {
+		CompiledRoutes previous = this.compiledRoutes;
+		String defaultFilters = fingerprint(this.gatewayProperties.getDefaultFilters());
+		//默认过滤器变化时所有路由都需要重新编译
+		Map<String, CompiledRoute> reusable = defaultFilters.equals(previous.defaultFilters)
+				? previous.routes : Collections.emptyMap();
+		Map<String, CompiledRoute> next = new ConcurrentHashMap<>();
+
+		return compile(this.routeDefinitionLocator.getRouteDefinitions(), routeDefinition -> {
+				String fingerprint = fingerprint(routeDefinition);
+				CompiledRoute compiled = reusable.get(routeDefinition.getId());
+				if (compiled == null || !compiled.fingerprint.equals(fingerprint)) {
+					compiled = new CompiledRoute(fingerprint, convertToRoute(routeDefinition));
+				}
+				else if (logger.isTraceEnabled()) {
+					logger.trace("RouteDefinition " + routeDefinition.getId() + " unchanged, reusing route");
+				}
+				next.put(routeDefinition.getId(), compiled);
+				return compiled.route;
+			}, parallelism)
+				.doOnComplete(() -> this.compiledRoutes = new CompiledRoutes(defaultFilters, next));
+	}
+
+	/**
+	 * 转换RouteDefinition，parallelism大于1时在并行调度器上并发转换，保持声明顺序，
+	 * 任一路由转换失败时立即失败并取消其余转换。并发转换时事件先暂存，
+	 * 再按声明顺序依次发布，监听器（例如 WeightCalculatorWebFilter）不会被并发调用
+	 * @param routeDefinitions
+	 * @param compiler
+	 * @param parallelism
+	 * @return
+	 */
+	private Flux<Route> compile(Flux<RouteDefinition> routeDefinitions,
+								Function<RouteDefinition, Route> compiler, int parallelism) {
+		if (parallelism <= 1) {
+			return routeDefinitions.map(compiler);
+		}
+		return routeDefinitions.flatMapSequential(routeDefinition ->
+				Mono.fromCallable(() -> compileDeferringEvents(compiler, routeDefinition))
+						.subscribeOn(Schedulers.parallel())
+						.onErrorMap(e -> new IllegalArgumentException(
+								"Unable to compile route " + routeDefinition.getId(), e)),
+				parallelism)
+				.map(compiled -> {
+					compiled.events.forEach(event -> this.publisher.publishEvent(event));
+					return compiled.route;
+				});
+	}
+
+	private DeferredRoute compileDeferringEvents(Function<RouteDefinition, Route> compiler,
+												 RouteDefinition routeDefinition) {
+		List<ApplicationEvent> events = new ArrayList<>();
+		this.deferredEvents.set(events);
+		try {
+			return new DeferredRoute(compiler.apply(routeDefinition), events);
+		}
+		finally {
+			this.deferredEvents.remove();
+		}
+	}
+
+	/**
+	 * 发布事件，并发编译时暂存到当前线程
+	 * @param event
+	 */
+	private void publishEvent(ApplicationEvent event) {
+		if (this.publisher == null) {
+			return;
+		}
+		List<ApplicationEvent> deferred = this.deferredEvents.get();
+		if (deferred != null) {
+			deferred.add(event);
+		}
+		else {
+			this.publisher.publishEvent(event);
+		}
+	}
+
+	/**
+	 * RouteDefinition内容的SHA-256摘要，包含过滤器定义（RouteDefinition.equals 不比较过滤器）
+	 * @param routeDefinition
+	 * @return
+	 */
+	static String fingerprint(RouteDefinition routeDefinition) {
+		MessageDigest digest = newDigest();
+		update(digest, routeDefinition.getId());
+		update(digest, String.valueOf(routeDefinition.getUri()));
+		update(digest, String.valueOf(routeDefinition.getOrder()));
+		update(digest, String.valueOf(routeDefinition.getPredicates().size()));
+		for (PredicateDefinition predicate : routeDefinition.getPredicates()) {
+			update(digest, predicate.getName(), predicate.getArgs());
+		}
+		updateFilters(digest, routeDefinition.getFilters());
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * 过滤器定义列表内容的SHA-256摘要
+	 * @param filterDefinitions
+	 * @return
+	 */
+	static String fingerprint(List<FilterDefinition> filterDefinitions) {
+		MessageDigest digest = newDigest();
+		updateFilters(digest, filterDefinitions);
+		return toHex(digest.digest());
+	}
+
+	private static void updateFilters(MessageDigest digest, List<FilterDefinition> filterDefinitions) {
+		update(digest, String.valueOf(filterDefinitions.size()));
+		for (FilterDefinition filter : filterDefinitions) {
+			update(digest, filter.getName(), filter.getArgs());
+		}
+	}
+
+	private static void update(MessageDigest digest, String name, Map<String, String> args) {
+		update(digest, name);
+		update(digest, String.valueOf(args.size()));
+		//参数的顺序决定快捷配置的绑定结果，按声明顺序计入摘要
+		args.forEach((key, value) -> {
+			update(digest, key);
+			update(digest, value);
+		});
+	}
+
+	/**
+	 * 写入带长度前缀的字符串，避免相邻字段拼接产生歧义
+	 */
+	private static void update(MessageDigest digest, String value) {
+		if (value == null) {
+			digest.update((byte) 0);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		digest.update((byte) 1);
+		digest.update(new byte[] {(byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+				(byte) (bytes.length >>> 8), (byte) bytes.length});
+		digest.update(bytes);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * RouteDefinition 转换为对应的Route
 	 * @param routeDefinition
 	 * @return
 	 */
 	private Route convertToRoute(RouteDefinition routeDefinition) {
+		Route.Builder builder = Route.builder(routeDefinition);
 		//获取routeDefinition中的Predicate信息
-		Predicate<ServerWebExchange> predicate = combinePredicates(routeDefinition);
+		combinePredicates(routeDefinition, builder);
 		//获取routeDefinition中的GatewayFilter信息
 		List<GatewayFilter> gatewayFilters = getFilters(routeDefinition);
 		//构建路由信息
-		return Route.builder(routeDefinition)
-				.predicate(predicate)
+		return builder
 				.replaceFilters(gatewayFilters)
 				.build();
 	}
@@ -194,18 +381,15 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 					}
 
 					//根据args组装配置信息
-                    Map<String, Object> properties = factory.shortcutType().normalize(args, factory, this.parser, this.beanFactory);
+                    Map<String, Object> properties = factory.shortcutType().normalize(args, factory, this.beanFactory);
 					//构建过滤器创建配置信息
-                    Object configuration = factory.newConfig();
-                    ConfigurationUtils.bind(configuration, properties,
-                            factory.shortcutFieldPrefix(), definition.getName(), validator);
+                    Object configuration = bindConfiguration(factory, properties,
+                            factory.shortcutFieldPrefix(), definition.getName());
 
                     //通过过滤器工厂创建GatewayFilter
                     GatewayFilter gatewayFilter = factory.apply(configuration);
-                    if (this.publisher != null) {
-                    	//发布事件
-                        this.publisher.publishEvent(new FilterArgsEvent(this, id, properties));
-                    }
+                    //发布事件
+                    publishEvent(new FilterArgsEvent(this, id, properties));
                     return gatewayFilter;
 				})
 				.collect(Collectors.toList());
@@ -252,23 +436,21 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 	}
 
 	/**
-	 * 返回组合的谓词
+	 * 组合谓词，通过路由构建器组合可保留谓词的索引提示信息
 	 * @param routeDefinition
-	 * @return
+	 * @param builder
 	 */
-	private Predicate<ServerWebExchange> combinePredicates(RouteDefinition routeDefinition) {
+	private void combinePredicates(RouteDefinition routeDefinition, Route.Builder builder) {
 		//获取RouteDefinition中的PredicateDefinition集合
 		List<PredicateDefinition> predicates = routeDefinition.getPredicates();
 
-		Predicate<ServerWebExchange> predicate = lookup(routeDefinition, predicates.get(0));
+		builder.predicate(lookup(routeDefinition, predicates.get(0)));
 
 		for (PredicateDefinition andPredicate : predicates.subList(1, predicates.size())) {
 			Predicate<ServerWebExchange> found = lookup(routeDefinition, andPredicate);
-			//返回一个组合的谓词，表示该谓词与另一个谓词的短路逻辑AND
-			predicate = predicate.and(found);
+			//组合的谓词，表示该谓词与另一个谓词的短路逻辑AND
+			builder.and(found);
 		}
-
-		return predicate;
 	}
 
 	/**
@@ -292,15 +474,78 @@ public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAwa
 		}
 
 		//组装参数
-        Map<String, Object> properties = factory.shortcutType().normalize(args, factory, this.parser, this.beanFactory);
+        Map<String, Object> properties = factory.shortcutType().normalize(args, factory, this.beanFactory);
         //构建创建谓语的配置信息
-		Object config = factory.newConfig();
-        ConfigurationUtils.bind(config, properties,
-                factory.shortcutFieldPrefix(), predicate.getName(), validator);
-        if (this.publisher != null) {
-            this.publisher.publishEvent(new PredicateArgsEvent(this, route.getId(), properties));
-        }
+		Object config = bindConfiguration(factory, properties,
+                factory.shortcutFieldPrefix(), predicate.getName());
+        publishEvent(new PredicateArgsEvent(this, route.getId(), properties));
         //通过谓语工厂构建谓语
         return factory.apply(config);
 	}
+
+	/**
+	 * 创建并绑定谓语或过滤器的配置，启用绑定缓存时相同的配置共享同一个实例
+	 * @param factory
+	 * @param properties
+	 * @param configurationPropertyName
+	 * @param bindingName
+	 * @return
+	 */
+	private Object bindConfiguration(Configurable<?> factory, Map<String, Object> properties,
+									 String configurationPropertyName, String bindingName) {
+		if (this.gatewayProperties.getRouteCompilation().isCacheBindings()) {
+			return this.bindingCache.bind(factory, properties, configurationPropertyName, bindingName, validator);
+		}
+		Object config = factory.newConfig();
+		ConfigurationUtils.bind(config, properties, configurationPropertyName, bindingName, validator);
+		return config;
+	}
+
+	/**
+	 * 并发编译的路由及其暂存的事件
+	 */
+	private static class DeferredRoute {
+
+		private final Route route;
+
+		private final List<ApplicationEvent> events;
+
+		DeferredRoute(Route route, List<ApplicationEvent> events) {
+			this.route = route;
+			this.events = events;
+		}
+	}
+
+	/**
+	 * 已编译的路由及其对应RouteDefinition的内容标识
+	 */
+	private static class CompiledRoute {
+
+		private final String fingerprint;
+
+		private final Route route;
+
+		CompiledRoute(String fingerprint, Route route) {
+			this.fingerprint = fingerprint;
+			this.route = route;
+		}
+	}
+
+	/**
+	 * 一代编译结果
+	 * key - RouteDefinition id
+	 */
+	private static class CompiledRoutes {
+
+		static final CompiledRoutes EMPTY = new CompiledRoutes(null, Collections.emptyMap());
+
+		private final String defaultFilters;
+
+		private final Map<String, CompiledRoute> routes;
+
+		CompiledRoutes(String defaultFilters, Map<String, CompiledRoute> routes) {
+			this.defaultFilters = defaultFilters;
+			this.routes = routes;
+		}
+	}
 }
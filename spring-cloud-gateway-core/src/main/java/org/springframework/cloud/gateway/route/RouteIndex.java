@@ -0,0 +1,289 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.gateway.handler.predicate.PredicateHints;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 路由索引，根据路由谓语的路径前缀构建前缀树，根据host构建哈希表及反转域名的后缀树，
+ * 请求只需要校验路径及host都可能匹配的路由
+ * Index of routes built from the literal prefixes of their path patterns and
+ * from their host patterns. Exact hosts are kept in a hash map, wildcard hosts
+ * in a tree of reversed labels. Candidates are always returned in the declared
+ * route order.
+ */
+public class RouteIndex {
+
+	/**
+	 * 按顺序排列的路由集合
+	 */
+	private final List<Route> routes;
+
+	/**
+	 * 没有路径约束的路由，每次都需要校验
+	 */
+	private final BitSet unindexed = new BitSet();
+
+	/**
+	 * 路径前缀树的根节点
+	 */
+	private final Node root = new Node();
+
+	/**
+	 * 没有host约束的路由，每次都需要校验
+	 */
+	private final BitSet hostUnindexed = new BitSet();
+
+	/**
+	 * 精确host对应的路由
+	 */
+	private final Map<String, BitSet> exactHosts = new HashMap<>();
+
+	/**
+	 * 通配host的反转域名后缀树的根节点
+	 */
+	private final LabelNode hostRoot = new LabelNode();
+
+	public RouteIndex(List<Route> routes) {
+		this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+		for (int i = 0; i < this.routes.size(); i++) {
+			PredicateHints hints = this.routes.get(i).getPredicateHints();
+			indexPath(hints, i);
+			indexHost(hints, i);
+		}
+	}
+
+	private void indexPath(PredicateHints hints, int routeIndex) {
+		if (!hints.hasPathPatterns()) {
+			this.unindexed.set(routeIndex);
+			return;
+		}
+		for (String pattern : hints.getPathPatterns()) {
+			String prefix = literalPrefix(pattern);
+			if (prefix == null) {
+				this.unindexed.set(routeIndex);
+			}
+			else {
+				this.root.add(prefix, 0, routeIndex);
+			}
+		}
+	}
+
+	private void indexHost(PredicateHints hints, int routeIndex) {
+		if (!hints.hasHostPatterns()) {
+			this.hostUnindexed.set(routeIndex);
+			return;
+		}
+		for (String pattern : hints.getHostPatterns()) {
+			if (pattern == null) {
+				this.hostUnindexed.set(routeIndex);
+			}
+			else if (isLiteral(pattern)) {
+				this.exactHosts.computeIfAbsent(pattern, host -> new BitSet()).set(routeIndex);
+			}
+			else {
+				List<String> suffix = literalLabelSuffix(pattern);
+				if (suffix.isEmpty()) {
+					this.hostUnindexed.set(routeIndex);
+				}
+				else {
+					this.hostRoot.add(suffix, 0, routeIndex);
+				}
+			}
+		}
+	}
+
+	public List<Route> getRoutes() {
+		return this.routes;
+	}
+
+	/**
+	 * 获取可能匹配当前请求的路由，保持路由的声明顺序
+	 * @param exchange
+	 * @return
+	 */
+	public List<Route> getCandidates(ServerWebExchange exchange) {
+		BitSet candidates = pathCandidates(exchange.getRequest().getURI().getPath());
+		BitSet hostCandidates = hostCandidates(exchange.getRequest().getHeaders().getFirst("Host"));
+		if (candidates == null && hostCandidates == null) {
+			return this.routes;
+		}
+		if (candidates == null) {
+			candidates = hostCandidates;
+		}
+		else if (hostCandidates != null) {
+			candidates.and(hostCandidates);
+		}
+
+		List<Route> result = new ArrayList<>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			result.add(this.routes.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * 获取路径可能匹配的路由
+	 * @param path
+	 * @return 路由位图，无法使用索引时返回 null
+	 */
+	private BitSet pathCandidates(String path) {
+		// path parameters and encoded characters are matched segment-wise by
+		// PathPattern, so the literal prefix is not reliable for such paths
+		if (path == null || path.indexOf(';') >= 0 || path.indexOf('%') >= 0) {
+			return null;
+		}
+
+		BitSet candidates = (BitSet) this.unindexed.clone();
+		Node node = this.root;
+		node.collect(candidates);
+		for (int i = 0; i < path.length() && node != null; i++) {
+			node = node.children.get(path.charAt(i));
+			if (node != null) {
+				node.collect(candidates);
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * 获取host可能匹配的路由
+	 * @param host
+	 * @return 路由位图，无法使用索引时返回 null
+	 */
+	private BitSet hostCandidates(String host) {
+		if (host == null) {
+			return null;
+		}
+
+		BitSet candidates = (BitSet) this.hostUnindexed.clone();
+		BitSet exact = this.exactHosts.get(host);
+		if (exact != null) {
+			candidates.or(exact);
+		}
+		LabelNode node = this.hostRoot;
+		int end = host.length();
+		while (node != null && end > 0) {
+			int start = host.lastIndexOf('.', end - 1) + 1;
+			node = node.children.get(host.substring(start, end));
+			if (node != null) {
+				candidates.or(node.routeIndexes);
+			}
+			end = start - 1;
+		}
+		return candidates;
+	}
+
+	private static boolean isLiteral(String value) {
+		return value.indexOf('*') < 0 && value.indexOf('?') < 0 && value.indexOf('{') < 0;
+	}
+
+	/**
+	 * 获取host模式末尾的字面量标签，反转顺序，例如 "**.example.org" 返回 [org, example]
+	 * @param pattern
+	 * @return
+	 */
+	static List<String> literalLabelSuffix(String pattern) {
+		List<String> labels = new ArrayList<>();
+		int end = pattern.length();
+		while (end > 0) {
+			int start = pattern.lastIndexOf('.', end - 1) + 1;
+			String label = pattern.substring(start, end);
+			if (label.isEmpty() || !isLiteral(label)) {
+				break;
+			}
+			labels.add(label);
+			end = start - 1;
+		}
+		return labels;
+	}
+
+	/**
+	 * 获取路径模式中的字面量前缀，遇到变量或通配符即截止
+	 * @param pattern
+	 * @return 前缀，无法建立索引时返回 null
+	 */
+	static String literalPrefix(String pattern) {
+		if (pattern == null || !pattern.startsWith("/")) {
+			return null;
+		}
+		int end = pattern.length();
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '{' || c == '*' || c == '?') {
+				end = i;
+				break;
+			}
+		}
+		String prefix = pattern.substring(0, end);
+		// "/foo/**" also matches "/foo", optional trailing separators as well
+		if (prefix.endsWith("/")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		return prefix;
+	}
+
+	private static class Node {
+
+		private final Map<Character, Node> children = new HashMap<>();
+
+		private int[] routeIndexes = new int[0];
+
+		void add(String prefix, int position, int routeIndex) {
+			if (position == prefix.length()) {
+				int[] indexes = new int[this.routeIndexes.length + 1];
+				System.arraycopy(this.routeIndexes, 0, indexes, 0, this.routeIndexes.length);
+				indexes[this.routeIndexes.length] = routeIndex;
+				this.routeIndexes = indexes;
+				return;
+			}
+			this.children.computeIfAbsent(prefix.charAt(position), c -> new Node())
+					.add(prefix, position + 1, routeIndex);
+		}
+
+		void collect(BitSet candidates) {
+			for (int routeIndex : this.routeIndexes) {
+				candidates.set(routeIndex);
+			}
+		}
+	}
+
+	private static class LabelNode {
+
+		private final Map<String, LabelNode> children = new HashMap<>();
+
+		private final BitSet routeIndexes = new BitSet();
+
+		void add(List<String> labels, int position, int routeIndex) {
+			if (position == labels.size()) {
+				this.routeIndexes.set(routeIndex);
+				return;
+			}
+			this.children.computeIfAbsent(labels.get(position), label -> new LabelNode())
+					.add(labels, position + 1, routeIndex);
+		}
+	}
+}
@@ -17,12 +17,23 @@
 
 package org.springframework.cloud.gateway.route;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
 import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
 import org.springframework.cloud.client.discovery.event.HeartbeatMonitor;
 import org.springframework.cloud.client.discovery.event.InstanceRegisteredEvent;
 import org.springframework.cloud.client.discovery.event.ParentHeartbeatEvent;
 import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationListener;
@@ -36,15 +47,105 @@ public class RouteRefreshListener
 
 	private HeartbeatMonitor monitor = new HeartbeatMonitor();
 	private final ApplicationEventPublisher publisher;
+	/**
+	 * 心跳时判断路由是否需要刷新，在调度器上异步执行，为 null 时每次心跳值变化都刷新
+	 */
+	private Supplier<Mono<Boolean>> heartbeatRefreshCondition;
+	/**
+	 * 防抖的静默期，最后一次触发后静默期内没有新的触发时才刷新，为 0 时立即刷新
+	 */
+	private Duration quietPeriod = Duration.ZERO;
+	/**
+	 * 首次触发到刷新的最长延迟
+	 */
+	private Duration maxDelay = Duration.ofSeconds(10);
+
+	private Scheduler scheduler = Schedulers.elastic();
+	/**
+	 * 等待执行的刷新，没有时为 null
+	 */
+	private Disposable pending;
+	/**
+	 * 等待执行的刷新的首次触发时间
+	 */
+	private long firstTriggerNanos;
+	/**
+	 * 刷新的调度序号，用于忽略已被重新调度的刷新
+	 */
+	private long sequence;
+
+	/**
+	 * 启动时已加载路由表的应用上下文，该上下文刷新完成时不再刷新路由
+	 */
+	private volatile ApplicationContext loadedContext;
+
+	private final AtomicLong executedRefreshes = new AtomicLong();
+
+	private final AtomicLong suppressedRefreshes = new AtomicLong();
 
 	public RouteRefreshListener(ApplicationEventPublisher publisher) {
 		Assert.notNull(publisher, "publisher may not be null");
 		this.publisher = publisher;
 	}
 
+	/**
+	 * 设置心跳时刷新路由的条件，例如注册中心的服务实例是否发生变化。
+	 * 条件在调度器上执行，不阻塞发布心跳事件的线程，执行失败时刷新路由
+	 * @param heartbeatRefreshCondition
+	 */
+	public void setHeartbeatRefreshCondition(Supplier<Mono<Boolean>> heartbeatRefreshCondition) {
+		this.heartbeatRefreshCondition = heartbeatRefreshCondition;
+	}
+
+	/**
+	 * 设置防抖的静默期及最长延迟，多次触发合并为一次刷新
+	 * @param quietPeriod
+	 * @param maxDelay
+	 */
+	public void setDebounce(Duration quietPeriod, Duration maxDelay) {
+		Assert.isTrue(!quietPeriod.isNegative(), "quietPeriod may not be negative");
+		Assert.isTrue(!maxDelay.isNegative(), "maxDelay may not be negative");
+		this.quietPeriod = quietPeriod;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * 标记应用上下文的路由表已在启动时加载，例如由 RouteWarmup 预热，
+	 * 该上下文发布的 ContextRefreshedEvent 不再触发一次重复的刷新
+	 * @param context
+	 */
+	public void skipContextRefresh(ApplicationContext context) {
+		this.loadedContext = context;
+	}
+
+	/* for testing */ void setScheduler(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * 获取已发布的路由刷新次数
+	 * @return
+	 */
+	public long getExecutedRefreshes() {
+		return this.executedRefreshes.get();
+	}
+
+	/**
+	 * 获取被合并到其他刷新中的触发次数
+	 * @return
+	 */
+	public long getSuppressedRefreshes() {
+		return this.suppressedRefreshes.get();
+	}
+
 	@Override
 	public void onApplicationEvent(ApplicationEvent event) {
 		if (event instanceof ContextRefreshedEvent
+				&& ((ContextRefreshedEvent) event).getApplicationContext() == this.loadedContext) {
+			//路由表已在启动时加载
+			this.loadedContext = null;
+		}
+		else if (event instanceof ContextRefreshedEvent
 				|| event instanceof RefreshScopeRefreshedEvent
 				|| event instanceof InstanceRegisteredEvent) {
 			reset();
@@ -60,12 +161,58 @@ public class RouteRefreshListener
 	}
 
 	private void resetIfNeeded(Object value) {
-		if (this.monitor.update(value)) {
+		if (!this.monitor.update(value)) {
+			return;
+		}
+		if (this.heartbeatRefreshCondition == null) {
 			reset();
+			return;
 		}
+		Mono.defer(this.heartbeatRefreshCondition)
+				.subscribeOn(this.scheduler)
+				.onErrorReturn(true)
+				.subscribe(changed -> {
+					if (changed) {
+						reset();
+					}
+				});
 	}
 
 	private void reset() {
+		if (this.quietPeriod.isZero()) {
+			publish();
+			return;
+		}
+		synchronized (this) {
+			long now = this.scheduler.now(TimeUnit.NANOSECONDS);
+			if (this.pending != null) {
+				//合并到等待执行的刷新中
+				this.suppressedRefreshes.incrementAndGet();
+				this.pending.dispose();
+			}
+			else {
+				this.firstTriggerNanos = now;
+			}
+			long remaining = Math.max(0, this.firstTriggerNanos + this.maxDelay.toNanos() - now);
+			long delay = Math.min(this.quietPeriod.toNanos(), remaining);
+			long scheduled = ++this.sequence;
+			this.pending = this.scheduler.schedule(() -> publishPending(scheduled), delay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void publishPending(long scheduled) {
+		synchronized (this) {
+			if (scheduled != this.sequence) {
+				// rescheduled by a later trigger
+				return;
+			}
+			this.pending = null;
+		}
+		publish();
+	}
+
+	private void publish() {
+		this.executedRefreshes.incrementAndGet();
 		this.publisher.publishEvent(new RefreshRoutesEvent(this));
 	}
 
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 路由刷新的监控指标
+ * Publishes the executed and suppressed refreshes of a {@link RouteRefreshListener} to Micrometer.
+ */
+public class RouteRefreshMetrics implements MeterBinder {
+
+	private final RouteRefreshListener listener;
+
+	public RouteRefreshMetrics(RouteRefreshListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("gateway.routes.refresh", this.listener, RouteRefreshListener::getExecutedRefreshes)
+				.tag("result", "executed")
+				.description("Route refreshes published")
+				.register(registry);
+		FunctionCounter.builder("gateway.routes.refresh", this.listener, RouteRefreshListener::getSuppressedRefreshes)
+				.tag("result", "suppressed")
+				.description("Route refresh triggers coalesced into another refresh")
+				.register(registry);
+	}
+}
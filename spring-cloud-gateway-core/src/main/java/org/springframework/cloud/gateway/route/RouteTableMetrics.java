@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 路由表的监控指标
+ * Publishes the route table generation, size and rebuild durations of a
+ * {@link CachingRouteLocator} to Micrometer. Other route locators are ignored.
+ */
+public class RouteTableMetrics implements MeterBinder {
+
+	private final RouteLocator routeLocator;
+
+	public RouteTableMetrics(RouteLocator routeLocator) {
+		this.routeLocator = routeLocator;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		if (!(this.routeLocator instanceof CachingRouteLocator)) {
+			return;
+		}
+		CachingRouteLocator locator = (CachingRouteLocator) this.routeLocator;
+		Gauge.builder("gateway.routes.generation", locator, CachingRouteLocator::getGeneration)
+				.description("Generation of the published route table")
+				.register(registry);
+		Gauge.builder("gateway.routes.count", locator, CachingRouteLocator::getRouteCount)
+				.description("Number of routes in the published route table")
+				.register(registry);
+		FunctionTimer.builder("gateway.routes.rebuild", locator, CachingRouteLocator::getRebuildCount,
+				CachingRouteLocator::getRebuildTotalTimeNanos, TimeUnit.NANOSECONDS)
+				.description("Time taken to build route tables")
+				.register(registry);
+		Gauge.builder("gateway.routes.rebuild.last", locator,
+				l -> l.getLastRebuildNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+				.description("Duration of the last route table build")
+				.baseUnit("seconds")
+				.register(registry);
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * 路由目标地址在构建路由时预先解析的部分，用于快速拼接请求URL
+ * The parts of a route URI that {@link org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter}
+ * needs, resolved once when the {@link Route} is built.
+ */
+public final class RouteTarget {
+
+	private static final String SCHEME_REGEX = "[a-zA-Z]([a-zA-Z]|\\d|\\+|\\.|-)*:.*";
+	static final Pattern schemePattern = Pattern.compile(SCHEME_REGEX);
+
+	/**
+	 * 特殊的资源定位前缀，例如 lb:ws://host 中的 lb
+	 */
+	private final String schemePrefix;
+
+	/**
+	 * 去掉前缀后的路由 URI
+	 */
+	private final URI uri;
+
+	/**
+	 * scheme://host:port 形式的地址前缀，路由 URI 带有路径、查询参数等其它部分时为 null
+	 */
+	private final String origin;
+
+	private RouteTarget(String schemePrefix, URI uri, String origin) {
+		this.schemePrefix = schemePrefix;
+		this.uri = uri;
+		this.origin = origin;
+	}
+
+	public static RouteTarget of(URI routeUri) {
+		String schemePrefix = null;
+		URI uri = routeUri;
+		if (hasAnotherScheme(routeUri)) {
+			// this is a special url, save scheme to special attribute
+			// replace routeUri with schemeSpecificPart
+			schemePrefix = routeUri.getScheme();
+			uri = URI.create(routeUri.getSchemeSpecificPart());
+		}
+		String origin = null;
+		if (!uri.isOpaque() && uri.getScheme() != null && uri.getHost() != null
+				&& uri.getRawUserInfo() == null && !StringUtils.hasLength(uri.getRawPath())
+				&& !StringUtils.hasLength(uri.getRawQuery()) && uri.getRawFragment() == null) {
+			StringBuilder sb = new StringBuilder(uri.getScheme()).append("://").append(uri.getHost());
+			if (uri.getPort() != -1) {
+				sb.append(':').append(uri.getPort());
+			}
+			origin = sb.toString();
+		}
+		return new RouteTarget(schemePrefix, uri, origin);
+	}
+
+	public static boolean hasAnotherScheme(URI uri) {
+		return schemePattern.matcher(uri.getSchemeSpecificPart()).matches() && uri.getHost() == null
+				&& uri.getRawPath() == null;
+	}
+
+	public String getSchemePrefix() {
+		return this.schemePrefix;
+	}
+
+	public URI getUri() {
+		return this.uri;
+	}
+
+	/**
+	 * 将请求URI转换为路由目标地址，仅替换协议、主机及端口时直接拼接字符串，不重新编码。
+	 * 端口总是取自路由URI，路由URI没有端口时目标地址也没有端口，不沿用请求的端口
+	 * Builds the URL the request is routed to. The port is always the port of the route
+	 * URI, a route URI without port yields a URL without port. When the route URI only
+	 * consists of a scheme, host and port, the raw path and query of the request are
+	 * appended to it as they are.
+	 * @param requestUri the request URI
+	 * @param encoded whether the request URI contains encoded parts
+	 * @return the request URL
+	 */
+	public URI toRequestUrl(URI requestUri, boolean encoded) {
+		if (this.origin != null && !requestUri.isOpaque() && requestUri.getRawUserInfo() == null
+				&& requestUri.getRawFragment() == null) {
+			String path = requestUri.getRawPath();
+			String query = requestUri.getRawQuery();
+			boolean hasQuery = StringUtils.hasLength(query);
+			StringBuilder sb = new StringBuilder(this.origin.length()
+					+ (path != null ? path.length() : 0) + (hasQuery ? query.length() + 1 : 0));
+			sb.append(this.origin);
+			if (path != null) {
+				sb.append(path);
+			}
+			if (hasQuery) {
+				sb.append('?').append(query);
+			}
+			return URI.create(sb.toString());
+		}
+		return UriComponentsBuilder.fromUri(requestUri)
+				.uri(this.uri)
+				// uri() keeps the request port when the route URI has none
+				.port(this.uri.getPort())
+				.build(encoded)
+				.toUri();
+	}
+
+	@Override
+	public String toString() {
+		return "RouteTarget{" +
+				"schemePrefix='" + schemePrefix + '\'' +
+				", uri=" + uri +
+				", origin='" + origin + '\'' +
+				'}';
+	}
+}
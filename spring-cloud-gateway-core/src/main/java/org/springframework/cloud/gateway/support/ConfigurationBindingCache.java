@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.util.Assert;
+import org.springframework.validation.Validator;
+
+/**
+ * 配置绑定结果的缓存，相同工厂及参数的定义共享同一个已绑定并校验过的配置实例
+ * Hands out the same bound and validated configuration instance for every
+ * definition with the same factory and normalized arguments.
+ * Bound configurations must therefore not be modified after binding. Once full, the
+ * least recently used configuration is evicted.
+ */
+public class ConfigurationBindingCache {
+
+	/**
+	 * 按访问顺序排列的 LRU 缓存，所有访问均需持有其锁
+	 */
+	private final Map<Key, Object> cache;
+
+	public ConfigurationBindingCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.cache = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * 获取已绑定的配置，仅在未缓存时创建配置并通过 {@link ConfigurationUtils#bind} 绑定
+	 * @param factory 创建配置实例的工厂
+	 * @param properties 规范化后的参数
+	 * @param configurationPropertyName
+	 * @param bindingName
+	 * @param validator
+	 * @return 已绑定并校验的配置
+	 */
+	public Object bind(Configurable<?> factory, Map<String, Object> properties,
+					   String configurationPropertyName, String bindingName, Validator validator) {
+		Key key = new Key(factory, configurationPropertyName, properties);
+		synchronized (this.cache) {
+			Object cached = this.cache.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		Object config = factory.newConfig();
+		ConfigurationUtils.bind(config, properties, configurationPropertyName, bindingName, validator);
+		synchronized (this.cache) {
+			Object previous = this.cache.putIfAbsent(key, config);
+			return previous != null ? previous : config;
+		}
+	}
+
+	public void clear() {
+		synchronized (this.cache) {
+			this.cache.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.cache) {
+			return this.cache.size();
+		}
+	}
+
+	private static final class Key {
+
+		private final Configurable<?> factory;
+
+		private final String configurationPropertyName;
+
+		private final Map<String, Object> properties;
+
+		private final int hash;
+
+		Key(Configurable<?> factory, String configurationPropertyName, Map<String, Object> properties) {
+			this.factory = factory;
+			this.configurationPropertyName = configurationPropertyName;
+			this.properties = properties;
+			this.hash = Objects.hash(System.identityHashCode(factory), configurationPropertyName, properties);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Key that = (Key) o;
+			return this.factory == that.factory &&
+					Objects.equals(this.configurationPropertyName, that.configurationPropertyName) &&
+					Objects.equals(this.properties, that.properties);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.Assert;
+
+/**
+ * 已解析的SpEL表达式缓存，路由刷新时复用表达式，避免重复解析
+ * Bounded cache of parsed SpEL expressions shared across route refreshes.
+ * Expressions are parsed in {@link SpelCompilerMode#MIXED} mode: they are compiled
+ * once they have been evaluated often enough and fall back to interpretation if
+ * the compiled form fails, for example when evaluated against another root type.
+ * Once full, the least recently used expression is evicted.
+ */
+public class ExpressionCache {
+
+	private static final ExpressionCache SHARED = new ExpressionCache(1024);
+
+	private static final TemplateParserContext TEMPLATE_CONTEXT = new TemplateParserContext();
+
+	private final SpelExpressionParser parser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, ExpressionCache.class.getClassLoader()));
+
+	/**
+	 * 按访问顺序排列的 LRU 缓存，表达式与模板表达式共用，所有访问均需持有其锁
+	 */
+	private final Map<Key, Expression> cache;
+
+	public ExpressionCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.cache = new LinkedHashMap<Key, Expression>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Expression> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * 获取共享的表达式缓存
+	 * @return
+	 */
+	public static ExpressionCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * 获取表达式，例如 {@code 'lb://'+serviceId}
+	 * @param expressionString
+	 * @return
+	 */
+	public Expression getExpression(String expressionString) {
+		return get(new Key(expressionString, false));
+	}
+
+	/**
+	 * 获取模板表达式，例如 {@code #{@myBean}}
+	 * @param expressionString
+	 * @return
+	 */
+	public Expression getTemplate(String expressionString) {
+		return get(new Key(expressionString, true));
+	}
+
+	public int size() {
+		synchronized (this.cache) {
+			return this.cache.size();
+		}
+	}
+
+	private Expression get(Key key) {
+		synchronized (this.cache) {
+			Expression expression = this.cache.get(key);
+			if (expression != null) {
+				return expression;
+			}
+		}
+		Expression expression = key.template ? this.parser.parseExpression(key.expressionString, TEMPLATE_CONTEXT)
+				: this.parser.parseExpression(key.expressionString);
+		//缓存已满时淘汰最久未使用的表达式
+		synchronized (this.cache) {
+			Expression previous = this.cache.putIfAbsent(key, expression);
+			return previous != null ? previous : expression;
+		}
+	}
+
+	private static final class Key {
+
+		private final String expressionString;
+
+		private final boolean template;
+
+		Key(String expressionString, boolean template) {
+			this.expressionString = expressionString;
+			this.template = template;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Key that = (Key) o;
+			return this.template == that.template &&
+					Objects.equals(this.expressionString, that.expressionString);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(expressionString, template);
+		}
+	}
+}
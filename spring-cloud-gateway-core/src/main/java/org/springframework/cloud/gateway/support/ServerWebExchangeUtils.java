@@ -52,6 +52,18 @@ public class ServerWebExchangeUtils {
 
 	public static final String GATEWAY_ALREADY_PREFIXED_ATTR = qualify("gatewayAlreadyPrefixed");
 
+	/**
+	 * The {@link org.springframework.cloud.gateway.filter.FlushPolicy} used for the proxied
+	 * request and response bodies of the current route.
+	 */
+	public static final String FLUSH_POLICY_ATTR = qualify("flushPolicy");
+
+	/**
+	 * The name of the connection pool profile the current route is sent through, see
+	 * {@code spring.cloud.gateway.httpclient.pools}.
+	 */
+	public static final String CONNECTION_POOL_ATTR = qualify("connectionPool");
+
 	private static String qualify(String attr) {
 		return ServerWebExchangeUtils.class.getName() + "." + attr;
 	}
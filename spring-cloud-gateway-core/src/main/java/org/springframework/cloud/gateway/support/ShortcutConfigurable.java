@@ -20,8 +20,6 @@ package org.springframework.cloud.gateway.support;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.expression.Expression;
-import org.springframework.expression.common.TemplateParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
 
@@ -40,12 +38,12 @@ public interface ShortcutConfigurable {
 	enum ShortcutType {
 		DEFAULT {
 			@Override
-			public Map<String, Object> normalize(Map<String, String> args, ShortcutConfigurable shortcutConf, SpelExpressionParser parser, BeanFactory beanFactory) {
+			public Map<String, Object> normalize(Map<String, String> args, ShortcutConfigurable shortcutConf, BeanFactory beanFactory) {
 				Map<String, Object> map = new HashMap<>();
 				int entryIdx = 0;
 				for (Map.Entry<String, String> entry : args.entrySet()) {
 					String key = normalizeKey(entry.getKey(), entryIdx, shortcutConf, args);
-					Object value = getValue(parser, beanFactory, entry.getValue());
+					Object value = getValue(beanFactory, entry.getValue());
 
 					map.put(key, value);
 					entryIdx++;
@@ -56,7 +54,7 @@ public interface ShortcutConfigurable {
 
 		GATHER_LIST {
 			@Override
-			public Map<String, Object> normalize(Map<String, String> args, ShortcutConfigurable shortcutConf, SpelExpressionParser parser, BeanFactory beanFactory) {
+			public Map<String, Object> normalize(Map<String, String> args, ShortcutConfigurable shortcutConf, BeanFactory beanFactory) {
 				Map<String, Object> map = new HashMap<>();
 				// field order should be of size 1
 				List<String> fieldOrder = shortcutConf.shortcutFieldOrder();
@@ -65,14 +63,14 @@ public interface ShortcutConfigurable {
 						"Shortcut Configuration Type GATHER_LIST must have shortcutFieldOrder of size 1");
 				String fieldName = fieldOrder.get(0);
 				map.put(fieldName, args.values().stream()
-						.map(value -> getValue(parser, beanFactory, value))
+						.map(value -> getValue(beanFactory, value))
 						.collect(Collectors.toList()));
 				return map;
 			}
 		};
 
 		public abstract Map<String, Object> normalize(Map<String, String> args, ShortcutConfigurable shortcutConf,
-													  SpelExpressionParser parser, BeanFactory beanFactory);
+													  BeanFactory beanFactory);
 	}
 
 	static String normalizeKey(String key, int entryIdx, ShortcutConfigurable argHints, Map<String, String> args) {
@@ -85,7 +83,10 @@ public interface ShortcutConfigurable {
 		return key;
 	}
 
-	static Object getValue(SpelExpressionParser parser, BeanFactory beanFactory, String entryValue) {
+	/**
+	 * 获取参数值，SpEL 模板参数通过共享的 {@link ExpressionCache} 解析后求值
+	 */
+	static Object getValue(BeanFactory beanFactory, String entryValue) {
 		Object value;
 		String rawValue = entryValue;
 		if (rawValue != null) {
@@ -95,7 +96,7 @@ public interface ShortcutConfigurable {
 			// assume it's spel
 			StandardEvaluationContext context = new StandardEvaluationContext();
 			context.setBeanResolver(new BeanFactoryResolver(beanFactory));
-			Expression expression = parser.parseExpression(entryValue, new TemplateParserContext());
+			Expression expression = ExpressionCache.shared().getTemplate(entryValue);
 			value = expression.getValue(context);
 		} else {
 			value = entryValue;
@@ -67,6 +67,15 @@ public class GatewayControllerEndpointTests {
 				});
 	}
 
+	@Test
+	public void testConnectionPools() {
+		testClient.get()
+				.uri("http://localhost:"+port+"/actuator/gateway/httpclient/pools")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(Map.class);
+	}
+
 	@SpringBootConfiguration
 	@EnableAutoConfiguration
 	@Import(PermitAllSecurityConfiguration.class)
@@ -38,7 +38,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory.REGEXP_KEY;
 import static org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory.REPLACEMENT_KEY;
@@ -88,6 +92,43 @@ public class DiscoveryClientRouteDefinitionLocatorTests {
 				.containsEntry(REPLACEMENT_KEY, "/${remaining}");
 	}
 
+	@Test
+	public void unchangedServicesReuseDefinitions() {
+		DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+		when(discoveryClient.getServices()).thenReturn(Arrays.asList("service1", "service2", "service3"));
+		Config.whenInstance(discoveryClient, "service1", Collections.emptyMap());
+		Config.whenInstance(discoveryClient, "service2", Collections.emptyMap());
+		Config.whenInstance(discoveryClient, "service3", Collections.emptyMap());
+		DiscoveryLocatorProperties properties = new DiscoveryLocatorProperties();
+		properties.setRouteIdPrefix("test_");
+		properties.setFetchConcurrency(2);
+		DiscoveryClientRouteDefinitionLocator locator = new DiscoveryClientRouteDefinitionLocator(
+				discoveryClient, properties);
+
+		assertThat(locator.instancesChanged().block()).isTrue();
+		List<RouteDefinition> first = locator.getRouteDefinitions().collectList().block();
+		assertThat(first).extracting(RouteDefinition::getId)
+				.containsExactly("test_service1", "test_service2", "test_service3");
+		assertThat(locator.instancesChanged().block()).isFalse();
+
+		Config.whenInstance(discoveryClient, "service2", Collections.singletonMap("version", "2"));
+		assertThat(locator.instancesChanged().block()).isTrue();
+		clearInvocations(discoveryClient);
+		List<RouteDefinition> second = locator.getRouteDefinitions().collectList().block();
+		// the instances fetched by the check are reused
+		verify(discoveryClient, never()).getInstances(anyString());
+		assertThat(second.get(0)).isSameAs(first.get(0));
+		assertThat(second.get(1)).isNotSameAs(first.get(1));
+		assertThat(second.get(2)).isSameAs(first.get(2));
+		assertThat(locator.instancesChanged().block()).isFalse();
+
+		when(discoveryClient.getServices()).thenReturn(Arrays.asList("service1", "service3"));
+		assertThat(locator.instancesChanged().block()).isTrue();
+		assertThat(locator.getRouteDefinitions().collectList().block()).extracting(RouteDefinition::getId)
+				.containsExactly("test_service1", "test_service3");
+		assertThat(locator.instancesChanged().block()).isFalse();
+	}
+
 	@SpringBootConfiguration
 	@EnableAutoConfiguration
 	protected static class Config {
@@ -101,7 +142,7 @@ public class DiscoveryClientRouteDefinitionLocatorTests {
 			return discoveryClient;
 		}
 
-		private void whenInstance(DiscoveryClient discoveryClient, String serviceId, Map<String, String> metadata) {
+		static void whenInstance(DiscoveryClient discoveryClient, String serviceId, Map<String, String> metadata) {
 			DefaultServiceInstance instance1 = new DefaultServiceInstance(serviceId, "localhost", 8001,
 					false, metadata);
 			when(discoveryClient.getInstances(serviceId)).
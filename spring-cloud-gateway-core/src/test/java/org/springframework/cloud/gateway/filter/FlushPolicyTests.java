@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.UnicastProcessor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlushPolicyTests {
+
+	private final DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+
+	private final Executor unused = command -> {
+		throw new IllegalStateException("unexpected");
+	};
+
+	@Test
+	public void onEachFlushesEveryBuffer() {
+		List<List<String>> groups = collect(FlushPolicy.onEach().group(body("a", "b", "c"), this.unused));
+
+		assertThat(groups).hasSize(3);
+	}
+
+	@Test
+	public void onSizeFlushesOnceThresholdIsReached() {
+		List<List<String>> groups = collect(FlushPolicy.onSize(4)
+				.group(body("ab", "cd", "e", "fgh", "i"), this.unused));
+
+		assertThat(groups).hasSize(3);
+		assertThat(groups.get(0)).containsExactly("ab", "cd");
+		assertThat(groups.get(1)).containsExactly("e", "fgh");
+		assertThat(groups.get(2)).containsExactly("i");
+	}
+
+	@Test
+	public void onIdleTickCoalescesBuffersOfOneIteration() {
+		Queue<Runnable> eventLoop = new ArrayDeque<>();
+		UnicastProcessor<DataBuffer> body = UnicastProcessor.create();
+		List<List<String>> groups = new ArrayList<>();
+		FlushPolicy.onIdleTick().group(body, eventLoop::add)
+				.concatMap(group -> group.map(this::toString).collectList())
+				.subscribe(groups::add);
+
+		body.onNext(buffer("a"));
+		body.onNext(buffer("b"));
+		assertThat(eventLoop).hasSize(1);
+		eventLoop.poll().run();
+
+		body.onNext(buffer("c"));
+		eventLoop.poll().run();
+		body.onComplete();
+
+		assertThat(groups.get(0)).containsExactly("a", "b");
+		assertThat(groups.get(1)).containsExactly("c");
+	}
+
+	private List<List<String>> collect(Flux<Flux<DataBuffer>> groups) {
+		return groups.concatMap(group -> group.map(this::toString).collectList())
+				.collectList().block();
+	}
+
+	private Flux<DataBuffer> body(String... chunks) {
+		return Flux.fromArray(chunks).map(this::buffer);
+	}
+
+	private DataBuffer buffer(String chunk) {
+		return this.factory.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String toString(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
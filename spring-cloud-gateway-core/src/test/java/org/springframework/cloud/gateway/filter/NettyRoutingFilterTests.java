@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.ipc.netty.http.client.HttpClient;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CONNECTION_POOL_ATTR;
+
+public class NettyRoutingFilterTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void routesSelectPooledHttpClients() {
+		HttpClient defaultClient = HttpClient.create();
+		HttpClient slowClient = HttpClient.create();
+		NettyRoutingFilter filter = new NettyRoutingFilter(defaultClient, mock(ObjectProvider.class));
+		filter.setPooledHttpClients(Collections.singletonMap("slow", slowClient));
+
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get").build());
+		assertThat(filter.getHttpClient(exchange)).isSameAs(defaultClient);
+
+		exchange.getAttributes().put(CONNECTION_POOL_ATTR, "slow");
+		assertThat(filter.getHttpClient(exchange)).isSameAs(slowClient);
+
+		exchange.getAttributes().put(CONNECTION_POOL_ATTR, "missing");
+		assertThatThrownBy(() -> filter.getHttpClient(exchange))
+				.isInstanceOf(IllegalStateException.class).hasMessageContaining("missing");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void destroyDisposesPoolResources() {
+		Disposable slowPool = mock(Disposable.class);
+		Disposable fastPool = mock(Disposable.class);
+		NettyRoutingFilter filter = new NettyRoutingFilter(HttpClient.create(), mock(ObjectProvider.class));
+		filter.setPoolResources(Arrays.asList(slowPool, fastPool));
+
+		filter.destroy();
+
+		verify(slowPool).dispose();
+		verify(fastPool).dispose();
+	}
+}
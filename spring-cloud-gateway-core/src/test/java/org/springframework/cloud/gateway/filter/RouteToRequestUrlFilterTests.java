@@ -34,6 +34,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.containsEncodedParts;
 
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
@@ -146,6 +147,40 @@ public class RouteToRequestUrlFilterTests {
 		assertThat(uri.getRawQuery()).isEqualTo("a=b&c=d[]");
 	}
 
+	@Test
+	public void fastPathMatchesUriComponentsBuilder() {
+		String[] requests = { "http://localhost/get?a=b&c=d[]", "http://localhost:8080/abc%20def/get?e=%5B",
+				"http://localhost", "http://localhost/get?", "http://user@localhost/get#frag" };
+		String[] routes = { "http://myhost", "https://myhost:8443", "lb:ws://myhost", "http://[::1]:9090",
+				"http://myhost/path", "http://myhost?x=y" };
+		for (String req : requests) {
+			URI requestUri = URI.create(req);
+			boolean encoded = containsEncodedParts(requestUri);
+			for (String routeUri : routes) {
+				Route route = Route.builder().id("1").uri(routeUri)
+						.predicate(swe -> true).build();
+				URI expected = UriComponentsBuilder.fromUri(requestUri)
+						.uri(route.getTarget().getUri())
+						.port(route.getTarget().getUri().getPort())
+						.build(encoded)
+						.toUri();
+				assertThat(route.getTarget().toRequestUrl(requestUri, encoded))
+						.as("%s routed to %s", req, routeUri).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	public void routeWithoutPortDropsRequestPort() {
+		Route route = Route.builder().id("1").uri("lb:ws://myhost")
+				.predicate(swe -> true).build();
+		URI[] requests = { URI.create("http://localhost:8080/get"), URI.create("http://user@localhost:8080/get") };
+		for (URI requestUri : requests) {
+			assertThat(route.getTarget().toRequestUrl(requestUri, false))
+					.hasScheme("ws").hasHost("myhost").hasNoPort().hasPath("/get");
+		}
+	}
+
 	@Test
 	public void matcherWorks() {
 		testMatcher(true,
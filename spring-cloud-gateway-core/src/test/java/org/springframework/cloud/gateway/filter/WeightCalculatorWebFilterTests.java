@@ -17,27 +17,44 @@
 
 package org.springframework.cloud.gateway.filter;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jetbrains.annotations.NotNull;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.PropertiesRouteDefinitionLocator;
 import org.springframework.cloud.gateway.event.PredicateArgsEvent;
 import org.springframework.cloud.gateway.filter.WeightCalculatorWebFilter.GroupWeightConfig;
+import org.springframework.cloud.gateway.filter.ratelimit.HeaderKeyResolver;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.handler.predicate.WeightRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
 import org.springframework.cloud.gateway.support.WeightConfig;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -54,15 +71,15 @@ public class WeightCalculatorWebFilterTests {
 
 		assertWeightCalculation(filter, grp1, grp1idx++, 1, asList(1.0));
 		assertWeightCalculation(filter, grp2, grp2idx++, 1, asList(1.0));
-		assertWeightCalculation(filter, grp1, grp1idx++, 3, asList(0.25, 0.75), 0.25);
-		assertWeightCalculation(filter, grp2, grp2idx++, 1, asList(0.5, 0.5), 0.5);
-		assertWeightCalculation(filter, grp1, grp1idx++, 6, asList(0.1, 0.3, 0.6), 0.1, 0.4);
-		assertWeightCalculation(filter, grp2, grp2idx++, 2, asList(0.25, 0.25, 0.5), 0.25, 0.5);
-		assertWeightCalculation(filter, grp2, grp2idx++, 4, asList(0.125, 0.125, 0.25, 0.5), 0.125, 0.25, 0.5);
+		assertWeightCalculation(filter, grp1, grp1idx++, 3, asList(0.25, 0.75));
+		assertWeightCalculation(filter, grp2, grp2idx++, 1, asList(0.5, 0.5));
+		assertWeightCalculation(filter, grp1, grp1idx++, 6, asList(0.1, 0.3, 0.6));
+		assertWeightCalculation(filter, grp2, grp2idx++, 2, asList(0.25, 0.25, 0.5));
+		assertWeightCalculation(filter, grp2, grp2idx++, 4, asList(0.125, 0.125, 0.25, 0.5));
 	}
 
 	private void assertWeightCalculation(WeightCalculatorWebFilter filter, String group, int item,
-										 int weight, List<Double> normalized, Double... middleRanges) {
+										 int weight, List<Double> normalized) {
 		String routeId = route(item);
 
 		filter.addWeightConfig(new WeightConfig(group, routeId, weight));
@@ -81,18 +98,7 @@ public class WeightCalculatorWebFilterTests {
 					.containsEntry(route(i+1), normalized.get(i));
 		}
 
-		for (int i = 0; i < normalized.size(); i++) {
-			assertThat(config.rangeIndexes)
-					.containsEntry(i, route(i+1));
-		}
-
-		assertThat(config.ranges).hasSize(item + 1)
-				.startsWith(0.0)
-				.endsWith(1.0);
-
-		if (middleRanges.length > 0) {
-			assertThat(config.ranges).contains(middleRanges);
-		}
+		assertThat(config.aliasTable).isNotNull();
 	}
 
 	@NotNull
@@ -111,8 +117,8 @@ public class WeightCalculatorWebFilterTests {
 
 		when(random.nextDouble())
 				.thenReturn(0.05)
-				.thenReturn(0.2)
-				.thenReturn(0.6);
+				.thenReturn(0.4)
+				.thenReturn(0.8);
 
 		filter.setRandom(random);
 
@@ -132,6 +138,80 @@ public class WeightCalculatorWebFilterTests {
 		assertThat(weights).containsEntry("groupa", "route3");
 	}
 
+	@Test
+	public void aliasTableHonoursWeights() {
+		WeightCalculatorWebFilter.AliasTable table = new WeightCalculatorWebFilter.AliasTable(
+				asList("route1", "route2", "route3"), asList(0.1, 0.3, 0.6));
+
+		Map<String, Integer> counts = new HashMap<>();
+		int samples = 100000;
+		for (int i = 0; i < samples; i++) {
+			counts.merge(table.select((i + 0.5) / samples), 1, Integer::sum);
+		}
+
+		assertThat(counts.get("route1") / (double) samples).isCloseTo(0.1, within(0.001));
+		assertThat(counts.get("route2") / (double) samples).isCloseTo(0.3, within(0.001));
+		assertThat(counts.get("route3") / (double) samples).isCloseTo(0.6, within(0.001));
+	}
+
+	@Test
+	public void groupIsChosenOncePerExchange() {
+		WeightCalculatorWebFilter filter = new WeightCalculatorWebFilter();
+		filter.addWeightConfig(new WeightConfig("groupa", "route1", 1));
+		filter.addWeightConfig(new WeightConfig("groupa", "route2", 1));
+		filter.addWeightConfig(new WeightConfig("groupb", "route3", 1));
+
+		Random random = mock(Random.class);
+		when(random.nextDouble()).thenReturn(0.1).thenReturn(0.9);
+		filter.setRandom(random);
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("http://localhost").build());
+		filter.filter(exchange, mock(WebFilterChain.class));
+		Map<String, String> weights = WeightCalculatorWebFilter.getWeights(exchange);
+
+		verify(random, never()).nextDouble();
+		assertThat(weights.get("groupa")).isEqualTo("route1");
+		assertThat(weights.get("groupa")).isEqualTo("route1");
+		verify(random, times(1)).nextDouble();
+		assertThat(weights.containsKey("groupc")).isFalse();
+	}
+
+	@Test
+	public void stickyKeySelectsSameRoute() {
+		WeightCalculatorWebFilter filter = new WeightCalculatorWebFilter();
+		filter.addWeightConfig(new WeightConfig("groupa", "stable", 9));
+		filter.addWeightConfig(new WeightConfig("groupa", "canary", 1));
+		filter.setStickyKeyResolver(new HeaderKeyResolver("X-User"));
+
+		Map<String, String> chosen = new HashMap<>();
+		for (int user = 0; user < 1000; user++) {
+			String routeId = chooseWithHeader(filter, "user" + user);
+			assertThat(chooseWithHeader(filter, "user" + user)).isEqualTo(routeId);
+			chosen.put("user" + user, routeId);
+		}
+		long canary = chosen.values().stream().filter("canary"::equals).count();
+		assertThat(canary).isBetween(50L, 150L);
+
+		// shifting weight to the canary only moves users from stable to canary
+		filter.addWeightConfig(new WeightConfig("groupa", "canary", 3));
+		long moved = 0;
+		for (Map.Entry<String, String> entry : chosen.entrySet()) {
+			String routeId = chooseWithHeader(filter, entry.getKey());
+			if (!routeId.equals(entry.getValue())) {
+				assertThat(entry.getValue()).isEqualTo("stable");
+				moved++;
+			}
+		}
+		assertThat(moved).isBetween(100L, 300L);
+	}
+
+	private String chooseWithHeader(WeightCalculatorWebFilter filter, String user) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("http://localhost")
+				.header("X-User", user).build());
+		filter.filter(exchange, e -> Mono.empty()).block();
+		return WeightCalculatorWebFilter.getWeights(exchange).get("groupa");
+	}
+
 	@Test
 	public void receivesPredicateArgsEvent() {
 		WeightCalculatorWebFilter filter = mock(WeightCalculatorWebFilter.class);
@@ -152,4 +232,42 @@ public class WeightCalculatorWebFilterTests {
 		assertThat(weightConfig.getRouteId()).isEqualTo("routeA");
 		assertThat(weightConfig.getWeight()).isEqualTo(1);
 	}
+
+	@Test
+	public void parallelRouteCompilationKeepsEveryWeightedRoute() {
+		GatewayProperties properties = new GatewayProperties();
+		properties.getRouteCompilation().setParallelism(4);
+		List<RouteDefinition> definitions = new ArrayList<>();
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			RouteDefinition definition = new RouteDefinition();
+			definition.setId("weight" + i);
+			definition.setUri(URI.create("http://localhost"));
+			definition.setPredicates(asList(new PredicateDefinition("Weight=group1, " + (i % 2 + 1))));
+			definitions.add(definition);
+			ids.add(definition.getId());
+		}
+		properties.setRoutes(definitions);
+
+		WeightCalculatorWebFilter filter = new WeightCalculatorWebFilter();
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicBoolean concurrent = new AtomicBoolean();
+		RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(
+				new PropertiesRouteDefinitionLocator(properties),
+				asList(new WeightRoutePredicateFactory()), Collections.emptyList(), properties);
+		locator.setApplicationEventPublisher(event -> {
+			if (inFlight.incrementAndGet() > 1) {
+				concurrent.set(true);
+			}
+			filter.onApplicationEvent((ApplicationEvent) event);
+			inFlight.decrementAndGet();
+		});
+
+		locator.getRoutes().blockLast();
+
+		assertThat(concurrent).isFalse();
+		GroupWeightConfig config = filter.getGroupWeights().get("group1");
+		assertThat(config.weights.keySet()).containsExactlyElementsOf(ids);
+		assertThat(config.normalizedWeights.keySet()).containsExactlyElementsOf(ids);
+	}
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.factory;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CONNECTION_POOL_ATTR;
+
+public class ConnectionPoolGatewayFilterFactoryTests {
+
+	@Test
+	public void configuredPoolIsSelected() {
+		HttpClientProperties properties = new HttpClientProperties();
+		properties.getPools().put("slow", new HttpClientProperties.Pool());
+		GatewayFilter filter = new ConnectionPoolGatewayFilterFactory(properties)
+				.apply(new ConnectionPoolGatewayFilterFactory.Config().setName("slow"));
+
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get").build());
+		filter.filter(exchange, e -> Mono.empty()).block();
+
+		assertThat((String) exchange.getAttribute(CONNECTION_POOL_ATTR)).isEqualTo("slow");
+	}
+
+	@Test
+	public void unknownPoolIsRejected() {
+		ConnectionPoolGatewayFilterFactory factory = new ConnectionPoolGatewayFilterFactory(new HttpClientProperties());
+
+		assertThatThrownBy(() -> factory.apply(new ConnectionPoolGatewayFilterFactory.Config().setName("slow")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("spring.cloud.gateway.httpclient.pools.slow");
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.headers;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledHttpHeadersFiltersTests {
+
+	@Test
+	public void matchesFilteringOneByOne() throws Exception {
+		MockServerHttpRequest request = MockServerHttpRequest
+				.get("http://localhost:8080/get")
+				.remoteAddress(new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 80))
+				.header(HttpHeaders.HOST, "myhost")
+				.header(HttpHeaders.CONNECTION, "keep-alive")
+				.header("Forwarded", "for=192.168.0.1;proto=https")
+				.header(XForwardedHeadersFilter.X_FORWARDED_FOR_HEADER, "192.168.0.1")
+				.header("X-Custom", "a", "b")
+				.build();
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		List<HttpHeadersFilter> filters = Arrays.asList(new XForwardedHeadersFilter(),
+				new ForwardedHeadersFilter(), new RemoveHopByHopHeadersFilter());
+
+		HttpHeaders expected = request.getHeaders();
+		for (HttpHeadersFilter filter : filters) {
+			expected = filter.filter(expected, exchange);
+		}
+
+		HttpHeaders headers = CompiledHttpHeadersFilters.compile(filters, Type.REQUEST)
+				.filter(request.getHeaders(), exchange);
+
+		assertThat(headers).isEqualTo(expected).doesNotContainKey(HttpHeaders.CONNECTION);
+		assertThat(request.getHeaders().get(XForwardedHeadersFilter.X_FORWARDED_FOR_HEADER))
+				.containsExactly("192.168.0.1");
+	}
+
+	@Test
+	public void removalAppliesToPrecedingFilters() {
+		MockServerHttpRequest request = MockServerHttpRequest.get("http://localhost/get")
+				.header("X-Keep", "1").build();
+		HttpHeadersFilter adding = (input, exchange) -> {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(input);
+			headers.add("X-Remove", "1");
+			return headers;
+		};
+		RemovingHttpHeadersFilter removing = name -> name.equalsIgnoreCase("X-Remove");
+
+		HttpHeaders headers = CompiledHttpHeadersFilters.compile(Arrays.asList(adding, removing), Type.REQUEST)
+				.filter(request.getHeaders(), MockServerWebExchange.from(request));
+
+		assertThat(headers).containsOnlyKeys("X-Keep");
+	}
+
+	@Test
+	public void removingOnlyIsDetectedPerType() {
+		List<HttpHeadersFilter> filters = Arrays.asList(new XForwardedHeadersFilter(),
+				new RemoveHopByHopHeadersFilter());
+
+		CompiledHttpHeadersFilters request = CompiledHttpHeadersFilters.compile(filters, Type.REQUEST);
+		CompiledHttpHeadersFilters response = CompiledHttpHeadersFilters.compile(filters, Type.RESPONSE);
+
+		assertThat(request.isRemovingOnly()).isFalse();
+		assertThat(response.isRemovingOnly()).isTrue();
+		assertThat(CompiledHttpHeadersFilters.compile(null, Type.RESPONSE).isRemovingOnly()).isTrue();
+		assertThat(response.removes("Transfer-Encoding")).isTrue();
+		assertThat(response.removes("Content-Type")).isFalse();
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.filter.pool;
+
+import java.net.InetSocketAddress;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.Promise;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.ipc.netty.resources.PoolResources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionPoolTrackerTests {
+
+	private final InetSocketAddress address = InetSocketAddress.createUnresolved("localhost", 8080);
+
+	private ConnectionPoolTracker tracker;
+
+	private PoolResources delegate;
+
+	private ChannelPool channelPool;
+
+	private Promise<Channel> acquire;
+
+	@Before
+	public void setUp() {
+		this.tracker = new ConnectionPoolTracker();
+		this.delegate = mock(PoolResources.class);
+		this.channelPool = mock(ChannelPool.class);
+		this.acquire = ImmediateEventExecutor.INSTANCE.newPromise();
+		when(this.delegate.selectOrCreate(eq(this.address), any(), any(), any())).thenReturn(this.channelPool);
+		when(this.channelPool.acquire()).thenReturn(this.acquire);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void tracksConnectionsPerPoolAndAddress() {
+		this.tracker = new ConnectionPoolTracker(true);
+		PoolResources poolResources = this.tracker.instrument("slow", this.delegate);
+		ChannelPool instrumented = poolResources.selectOrCreate(this.address, Bootstrap::new, channel -> {}, null);
+		assertThat(poolResources.selectOrCreate(this.address, Bootstrap::new, channel -> {}, null))
+				.isSameAs(instrumented);
+
+		ArgumentCaptor<Consumer> onChannelCreate = ArgumentCaptor.forClass(Consumer.class);
+		verify(this.delegate).selectOrCreate(eq(this.address), any(), onChannelCreate.capture(), any());
+
+		assertThat(this.tracker.getStats()).hasSize(1);
+		ConnectionPoolStats stats = this.tracker.getStats().get(0);
+		assertThat(stats.getPool()).isEqualTo("slow");
+		assertThat(stats.getRemoteAddress()).isEqualTo("localhost:8080");
+
+		EmbeddedChannel channel = new EmbeddedChannel();
+		onChannelCreate.getValue().accept(channel);
+		assertThat(stats.getCreated()).isEqualTo(1);
+		assertThat(stats.getIdle()).isEqualTo(1);
+
+		instrumented.acquire();
+		assertThat(stats.getPending()).isEqualTo(1);
+
+		this.acquire.setSuccess(channel);
+		assertThat(stats.getPending()).isEqualTo(0);
+		assertThat(stats.getActive()).isEqualTo(1);
+		assertThat(stats.getIdle()).isEqualTo(0);
+
+		instrumented.release(channel);
+		assertThat(stats.getActive()).isEqualTo(0);
+		assertThat(stats.getIdle()).isEqualTo(1);
+
+		channel.close();
+		assertThat(stats.getClosed()).isEqualTo(1);
+		assertThat(stats.getIdle()).isEqualTo(0);
+	}
+
+	@Test
+	public void aggregatesAddressesPerPoolByDefault() {
+		InetSocketAddress otherAddress = InetSocketAddress.createUnresolved("otherhost", 8080);
+		when(this.delegate.selectOrCreate(eq(otherAddress), any(), any(), any())).thenReturn(this.channelPool);
+		PoolResources poolResources = this.tracker.instrument("slow", this.delegate);
+
+		poolResources.selectOrCreate(this.address, Bootstrap::new, channel -> {}, null).acquire();
+		poolResources.selectOrCreate(otherAddress, Bootstrap::new, channel -> {}, null).acquire();
+
+		assertThat(this.tracker.getStats()).hasSize(1);
+		ConnectionPoolStats stats = this.tracker.getStats().get(0);
+		assertThat(stats.getPool()).isEqualTo("slow");
+		assertThat(stats.getRemoteAddress()).isNull();
+		assertThat(stats.toMap()).doesNotContainKey("remoteAddress");
+		assertThat(stats.getPending()).isEqualTo(2);
+	}
+
+	@Test
+	public void publishesMetrics() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new ConnectionPoolMetrics(this.tracker).bindTo(registry);
+
+		ChannelPool instrumented = this.tracker.instrument("default", this.delegate)
+				.selectOrCreate(this.address, Bootstrap::new, channel -> {}, null);
+		instrumented.acquire();
+
+		assertThat(registry.get("gateway.httpclient.pool.pending").tag("pool", "default")
+				.gauge().value()).isEqualTo(1);
+		assertThat(registry.get("gateway.httpclient.pool.pending").gauge().getId().getTag("remote.address"))
+				.isNull();
+
+		this.acquire.setSuccess(new EmbeddedChannel());
+		assertThat(registry.get("gateway.httpclient.pool.pending").gauge().value()).isEqualTo(0);
+		assertThat(registry.get("gateway.httpclient.pool.connections").tag("state", "active")
+				.gauge().value()).isEqualTo(1);
+		assertThat(registry.get("gateway.httpclient.pool.acquire").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void publishesMetricsPerAddressWhenEnabled() {
+		this.tracker = new ConnectionPoolTracker(true);
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new ConnectionPoolMetrics(this.tracker).bindTo(registry);
+
+		this.tracker.instrument("default", this.delegate)
+				.selectOrCreate(this.address, Bootstrap::new, channel -> {}, null)
+				.acquire();
+
+		assertThat(registry.get("gateway.httpclient.pool.pending")
+				.tag("pool", "default").tag("remote.address", "localhost:8080")
+				.gauge().value()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.PathRewriteFilter;
+import org.springframework.cloud.gateway.filter.SchemeAwareFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import reactor.core.publisher.Mono;
+
+public class FilteringWebHandlerTests {
+
+	@Test
+	public void combinedFiltersAreSortedAndCached() {
+		List<String> calls = new ArrayList<>();
+		FilteringWebHandler handler = new FilteringWebHandler(Arrays.asList(
+				new RecordingGlobalFilter("global2", 2, calls),
+				new RecordingGlobalFilter("global0", 0, calls)));
+		Route route = Route.builder().id("1").uri("http://localhost")
+				.predicate(exchange -> true)
+				.filter(new OrderedGatewayFilter((exchange, chain) -> {
+					calls.add("route1");
+					return chain.filter(exchange);
+				}, 1))
+				.build();
+
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/").build());
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+		handler.handle(exchange).block();
+
+		assertThat(calls).containsExactly("global0", "route1", "global2");
+		GatewayFilter[] combined = handler.getCombinedFilters(route);
+		assertThat(handler.getCombinedFilters(route)).isSameAs(combined);
+
+		handler.handleRefresh();
+		assertThat(handler.getCombinedFilters(route)).isNotSameAs(combined).containsExactly(combined);
+	}
+
+	@Test
+	public void precompiledChainWorks() {
+		List<String> calls = new ArrayList<>();
+		FilteringWebHandler handler = new FilteringWebHandler(Arrays.asList(
+				new RecordingGlobalFilter("global2", 2, calls),
+				new RecordingGlobalFilter("global0", 0, calls)));
+		handler.setPrecompiledChains(true);
+		Route route = Route.builder().id("1").uri("http://localhost")
+				.predicate(exchange -> true)
+				.filter(new OrderedGatewayFilter((exchange, chain) -> {
+					calls.add("route1");
+					return chain.filter(exchange);
+				}, 1))
+				.build();
+
+		for (int i = 0; i < 2; i++) {
+			MockServerWebExchange exchange = MockServerWebExchange
+					.from(MockServerHttpRequest.get("http://localhost/").build());
+			exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+			handler.handle(exchange).block();
+		}
+
+		assertThat(calls).containsExactly("global0", "route1", "global2",
+				"global0", "route1", "global2");
+	}
+
+	@Test
+	public void routeSchemesWork() {
+		assertThat(FilteringWebHandler.routeSchemes(URI.create("http://localhost"))).containsOnly("http");
+		assertThat(FilteringWebHandler.routeSchemes(URI.create("lb://service"))).containsOnly("lb");
+		assertThat(FilteringWebHandler.routeSchemes(URI.create("lb:ws://service"))).containsOnly("lb", "ws");
+		assertThat(FilteringWebHandler.routeSchemes(URI.create("forward:///local"))).containsOnly("forward");
+	}
+
+	@Test
+	public void globalFiltersArePrunedByScheme() {
+		List<String> calls = new ArrayList<>();
+		RecordingGlobalFilter any = new RecordingGlobalFilter("any", 0, calls);
+		ForwardOnlyFilter forward = new ForwardOnlyFilter();
+		FilteringWebHandler handler = new FilteringWebHandler(Arrays.asList(any, forward));
+		handler.setPruneByScheme(true);
+
+		Route httpRoute = Route.builder().id("http").uri("http://localhost")
+				.predicate(exchange -> true).build();
+		Route forwardRoute = Route.builder().id("forward").uri("forward:///local")
+				.predicate(exchange -> true).build();
+
+		assertThat(handler.getCombinedFilters(httpRoute)).hasSize(1);
+		assertThat(handler.getCombinedFilters(forwardRoute)).hasSize(2);
+	}
+
+	@Test
+	public void consecutivePathRewritesAreFused() {
+		List<String> paths = new ArrayList<>();
+		FilteringWebHandler handler = new FilteringWebHandler(Collections.singletonList(
+				new RecordingPathFilter(Ordered.LOWEST_PRECEDENCE, paths)));
+		handler.setFusePathRewrites(true);
+		Route route = Route.builder().id("1").uri("http://localhost")
+				.predicate(exchange -> true)
+				.filter(new OrderedGatewayFilter((PathRewriteFilter) (exchange, path) ->
+						path.substring(path.indexOf('/', 1)), 1))
+				.filter(new OrderedGatewayFilter((PathRewriteFilter) (exchange, path) -> null, 2))
+				.filter(new OrderedGatewayFilter((PathRewriteFilter) (exchange, path) ->
+						"/prefix" + path, 3))
+				.build();
+
+		assertThat(handler.getCombinedFilters(route)).hasSize(2);
+
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/strip/foo").build());
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+		handler.handle(exchange).block();
+
+		assertThat(paths).containsExactly("/prefix/foo");
+		LinkedHashSet<URI> originalUris = exchange.getAttribute(GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+		assertThat(originalUris).containsExactly(URI.create("http://localhost/strip/foo"));
+	}
+
+	private static class RecordingPathFilter implements GlobalFilter, Ordered {
+
+		private final int order;
+
+		private final List<String> paths;
+
+		RecordingPathFilter(int order, List<String> paths) {
+			this.order = order;
+			this.paths = paths;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			this.paths.add(exchange.getRequest().getURI().getRawPath());
+			return chain.filter(exchange);
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+	}
+
+	private static class ForwardOnlyFilter implements GlobalFilter, SchemeAwareFilter {
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			return chain.filter(exchange);
+		}
+
+		@Override
+		public Set<String> getRouteSchemes() {
+			return Collections.singleton("forward");
+		}
+	}
+
+	private static class RecordingGlobalFilter implements GlobalFilter, Ordered {
+
+		private final String name;
+
+		private final int order;
+
+		private final List<String> calls;
+
+		RecordingGlobalFilter(String name, int order, List<String> calls) {
+			this.name = name;
+			this.order = order;
+			this.calls = calls;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			this.calls.add(this.name);
+			return chain.filter(exchange);
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+	}
+}
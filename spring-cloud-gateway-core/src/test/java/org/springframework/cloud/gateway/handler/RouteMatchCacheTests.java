@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.cloud.gateway.handler.predicate.HeaderRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import reactor.core.publisher.Flux;
+
+public class RouteMatchCacheTests {
+
+	private final PathRoutePredicateFactory path = new PathRoutePredicateFactory();
+
+	private final HeaderRoutePredicateFactory header = new HeaderRoutePredicateFactory();
+
+	@Test
+	public void cachesDeterministicRoutes() {
+		Route foo = Route.builder().id("foo").uri("http://localhost")
+				.predicate(path.apply(c -> c.setPattern("/foo/**"))).build();
+		RouteMatchCache cache = new RouteMatchCache(10);
+		RoutePredicateHandlerMapping mapping = mapping(cache, foo);
+
+		assertThat(mapping.lookupRoute(exchange("/foo/1")).block()).isEqualTo(foo);
+		assertThat(mapping.lookupRoute(exchange("/foo/1")).block()).isEqualTo(foo);
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void nonDeterministicRoutesBypassCache() {
+		Route headerRoute = Route.builder().id("header").uri("http://localhost")
+				.predicate(header.apply(c -> c.setHeader("X-Foo").setRegexp("bar"))).build();
+		Route foo = Route.builder().id("foo").uri("http://localhost")
+				.predicate(path.apply(c -> c.setPattern("/foo/**"))).build();
+		RouteMatchCache cache = new RouteMatchCache(10);
+		RoutePredicateHandlerMapping mapping = mapping(cache, headerRoute, foo);
+
+		assertThat(mapping.lookupRoute(exchange("/foo/1")).block()).isEqualTo(foo);
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void cacheIsBounded() {
+		Route foo = Route.builder().id("foo").uri("http://localhost")
+				.predicate(path.apply(c -> c.setPattern("/foo/**"))).build();
+		RouteMatchCache cache = new RouteMatchCache(1);
+		RoutePredicateHandlerMapping mapping = mapping(cache, foo);
+
+		mapping.lookupRoute(exchange("/foo/1")).block();
+		mapping.lookupRoute(exchange("/foo/2")).block();
+
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void hotKeyIsCachedAfterCacheFills() {
+		Route foo = Route.builder().id("foo").uri("http://localhost")
+				.predicate(path.apply(c -> c.setPattern("/foo/**"))).build();
+		RouteMatchCache cache = new RouteMatchCache(2);
+		RoutePredicateHandlerMapping mapping = mapping(cache, foo);
+
+		mapping.lookupRoute(exchange("/foo/1")).block();
+		mapping.lookupRoute(exchange("/foo/2")).block();
+		mapping.lookupRoute(exchange("/foo/hot")).block();
+		long hits = cache.getHits();
+
+		mapping.lookupRoute(exchange("/foo/hot")).block();
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getHits()).isEqualTo(hits + 1);
+	}
+
+	private RoutePredicateHandlerMapping mapping(RouteMatchCache cache, Route... routes) {
+		CachingRouteLocator routeLocator = new CachingRouteLocator(() -> Flux.fromIterable(Arrays.asList(routes)));
+		RoutePredicateHandlerMapping mapping = new RoutePredicateHandlerMapping(
+				new FilteringWebHandler(Collections.emptyList()), routeLocator);
+		mapping.setRouteMatchCache(cache);
+		return mapping;
+	}
+
+	private ServerWebExchange exchange(String path) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("http://localhost" + path).build());
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.cloud.gateway.config.GatewayAutoConfiguration;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.RouteRefreshListener;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+public class RouteWarmupTests {
+
+	@Test
+	public void warmupLoadsRouteTableAndFilterChains() {
+		AtomicInteger loads = new AtomicInteger();
+		Route route = Route.builder().id("1").uri("http://localhost")
+				.predicate(exchange -> true)
+				.build();
+		CachingRouteLocator routeLocator = new CachingRouteLocator(
+				() -> Flux.defer(() -> {
+					loads.incrementAndGet();
+					return Flux.just(route);
+				}));
+		FilteringWebHandler webHandler = new FilteringWebHandler(Collections.emptyList());
+
+		assertThat(new RouteWarmup(routeLocator, webHandler).warmup()).isEqualTo(1);
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(routeLocator.getGeneration()).isEqualTo(1);
+
+		routeLocator.getRoutes().collectList().block();
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void newRouteTablesAreWarmedUp() {
+		Route route1 = Route.builder().id("1").uri("http://localhost")
+				.predicate(exchange -> true)
+				.build();
+		Route route2 = Route.builder().id("2").uri("http://localhost")
+				.predicate(exchange -> true)
+				.build();
+		AtomicReference<Route> current = new AtomicReference<>(route1);
+		CachingRouteLocator routeLocator = new CachingRouteLocator(() -> Flux.defer(() -> Flux.just(current.get())));
+		routeLocator.setRefreshScheduler(Schedulers.immediate());
+		FilteringWebHandler webHandler = new FilteringWebHandler(Collections.emptyList());
+		new RouteWarmup(routeLocator, webHandler).afterSingletonsInstantiated();
+		assertThat(webHandler.hasCombinedFilters(route1)).isTrue();
+
+		current.set(route2);
+		webHandler.handleRefresh();
+		routeLocator.refresh().blockLast();
+
+		assertThat(webHandler.hasCombinedFilters(route2)).isTrue();
+		assertThat(webHandler.hasCombinedFilters(route1)).isFalse();
+	}
+
+	@Test
+	public void startupCompilesRoutesOnceAndWarmsFilterChains() {
+		new ReactiveWebApplicationContextRunner()
+				.withConfiguration(AutoConfigurations.of(WebFluxAutoConfiguration.class,
+						GatewayAutoConfiguration.class))
+				.withUserConfiguration(RoutesConfig.class)
+				.withPropertyValues("spring.cloud.gateway.warmup.enabled=true")
+				.run(context -> {
+					assertThat(context).hasSingleBean(RouteWarmup.class);
+					CachingRouteLocator routeLocator = (CachingRouteLocator) context.getBean(RouteLocator.class);
+					assertThat(routeLocator.getRebuildCount()).isEqualTo(1);
+					assertThat(context.getBean(RouteRefreshListener.class).getExecutedRefreshes()).isEqualTo(0);
+
+					FilteringWebHandler webHandler = context.getBean(FilteringWebHandler.class);
+					List<Route> routes = routeLocator.getRoutes().collectList().block();
+					assertThat(routes).isNotEmpty();
+					assertThat(routes).allMatch(webHandler::hasCombinedFilters);
+					assertThat(routeLocator.getRebuildCount()).isEqualTo(1);
+				});
+	}
+
+	@Configuration
+	protected static class RoutesConfig {
+
+		@Bean
+		public RouteLocator testRoutes(RouteLocatorBuilder builder) {
+			return builder.routes()
+					.route("warmup_test", r -> r.path("/warmup").uri("http://localhost"))
+					.build();
+		}
+	}
+}
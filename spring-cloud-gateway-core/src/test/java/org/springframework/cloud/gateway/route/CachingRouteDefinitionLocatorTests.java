@@ -18,10 +18,19 @@
 package org.springframework.cloud.gateway.route;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -62,6 +71,39 @@ public class CachingRouteDefinitionLocatorTests {
 		assertThat(routes).containsExactlyInAnyOrder(routeDef1, routeDef2);
 	}
 
+	@Test
+	public void routeRefreshWaitsForDefinitionReload() throws Exception {
+		AtomicReference<List<RouteDefinition>> definitions = new AtomicReference<>(
+				Collections.singletonList(routeDef(1)));
+		CachingRouteDefinitionLocator definitionLocator = new CachingRouteDefinitionLocator(
+				() -> Mono.fromCallable(definitions::get)
+						.delayElement(Duration.ofMillis(100))
+						.flatMapIterable(defs -> defs));
+		CachingRouteLocator routeLocator = new CachingRouteLocator(() -> definitionLocator.getRouteDefinitions()
+				.map(def -> Route.builder().id(def.getId()).uri(def.getUri()).predicate(exchange -> true).build()));
+
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+			// the route locator is registered first, its listener must still run last
+			context.registerBean("routeLocator", CachingRouteLocator.class, () -> routeLocator);
+			context.registerBean("routeDefinitionLocator", CachingRouteDefinitionLocator.class,
+					() -> definitionLocator);
+			context.refresh();
+			assertThat(routeLocator.getRoutes().collectList().block())
+					.extracting(Route::getId).containsExactly("1");
+
+			definitions.set(Arrays.asList(routeDef(1), routeDef(2)));
+			context.publishEvent(new RefreshRoutesEvent(this));
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (routeLocator.getGeneration() < 2 && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(routeLocator.getGeneration()).isEqualTo(2);
+			assertThat(routeLocator.getRoutes().collectList().block())
+					.extracting(Route::getId).containsExactlyInAnyOrder("1", "2");
+		}
+	}
+
 	RouteDefinition routeDef(int id) {
 		RouteDefinition def = new RouteDefinition();
 		def.setId(String.valueOf(id));
@@ -18,9 +18,13 @@
 package org.springframework.cloud.gateway.route;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -61,6 +65,109 @@ public class CachingRouteLocatorTests {
 		assertThat(routes).containsExactly(route1, route2);
 	}
 
+	@Test
+	public void refreshPublishesNewGeneration() {
+		Route route1 = route(1);
+		CachingRouteLocator locator = new CachingRouteLocator(() -> Flux.just(route1));
+
+		assertThat(locator.getGeneration()).isEqualTo(0);
+		RouteIndex index = locator.getRouteIndex().block();
+		assertThat(locator.getGeneration()).isEqualTo(1);
+		assertThat(locator.getRouteIndex().block()).isSameAs(index);
+
+		locator.refresh().blockLast();
+		assertThat(locator.getGeneration()).isEqualTo(2);
+		assertThat(locator.getRouteIndex().block()).isNotSameAs(index);
+		assertThat(locator.getRebuildCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void failedRefreshKeepsRouteTable() {
+		Route route1 = route(1);
+		CachingRouteLocator locator = new CachingRouteLocator(new RouteLocator() {
+			int i = 0;
+
+			@Override
+			public Flux<Route> getRoutes() {
+				if (i++ == 0) {
+					return Flux.just(route1);
+				}
+				return Flux.error(new IllegalStateException("boom"));
+			}
+		});
+
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+
+		locator.refresh().onErrorResume(e -> Flux.empty()).blockLast();
+
+		assertThat(locator.getGeneration()).isEqualTo(1);
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+	}
+
+	@Test
+	public void pendingRefreshServesCurrentRouteTable() {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		DirectProcessor<Route> pending = DirectProcessor.create();
+		CachingRouteLocator locator = new CachingRouteLocator(new RouteLocator() {
+			int i = 0;
+
+			@Override
+			public Flux<Route> getRoutes() {
+				if (i++ == 0) {
+					return Flux.just(route1);
+				}
+				return pending;
+			}
+		});
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+		locator.setRefreshScheduler(Schedulers.immediate());
+
+		locator.refresh();
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+
+		pending.onNext(route2);
+		pending.onComplete();
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route2);
+		assertThat(locator.getGeneration()).isEqualTo(2);
+	}
+
+	@Test
+	public void refreshDoesNotWaitForRebuild() throws Exception {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		CountDownLatch delegateReleased = new CountDownLatch(1);
+		CachingRouteLocator locator = new CachingRouteLocator(new RouteLocator() {
+			int i = 0;
+
+			@Override
+			public Flux<Route> getRoutes() {
+				if (i++ == 0) {
+					return Flux.just(route1);
+				}
+				return Flux.defer(() -> {
+					try {
+						delegateReleased.await(5, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return Flux.just(route2);
+				});
+			}
+		});
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+
+		long start = System.nanoTime();
+		Flux<Route> refreshed = locator.refresh();
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+
+		delegateReleased.countDown();
+		assertThat(refreshed.collectList().block()).containsExactly(route2);
+		assertThat(locator.getGeneration()).isEqualTo(2);
+	}
+
 	Route route(int id) {
 		return Route.builder().id(String.valueOf(id))
 				.uri("http://localhost/"+id)
@@ -1,8 +1,10 @@
 package org.springframework.cloud.gateway.route;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.springframework.cloud.gateway.config.GatewayProperties;
@@ -19,6 +21,7 @@ import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
 import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Toshiaki Maki
@@ -61,6 +64,100 @@ public class RouteDefinitionRouteLocatorTests {
 				.startsWith("RouteDefinitionRouteLocatorTests$TestOrderedGateway");
 	}
 
+	@Test
+	public void refreshRecompilesOnlyChangedRoutes() {
+		CountingGatewayFilterFactory counting = new CountingGatewayFilterFactory();
+		GatewayProperties gatewayProperties = new GatewayProperties();
+		RouteDefinition foo = routeDefinition("foo", "foo.example.com");
+		RouteDefinition bar = routeDefinition("bar", "bar.example.com");
+		gatewayProperties.setRoutes(Arrays.asList(foo, bar));
+		gatewayProperties.getRouteCompilation().setIncremental(true);
+
+		RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(
+				new PropertiesRouteDefinitionLocator(gatewayProperties),
+				Arrays.asList(new HostRoutePredicateFactory()),
+				Arrays.asList(counting), gatewayProperties);
+
+		List<Route> first = locator.getRoutes().collectList().block();
+		assertThat(counting.applied.get()).isEqualTo(2);
+
+		bar.setUri(URI.create("http://bar.example.org"));
+		List<Route> second = locator.getRoutes().collectList().block();
+		assertThat(counting.applied.get()).isEqualTo(3);
+		assertThat(second).extracting(Route::getId).containsExactly("foo", "bar");
+		assertThat(second.get(0)).isSameAs(first.get(0));
+		assertThat(second.get(1)).isNotSameAs(first.get(1));
+
+		gatewayProperties.setRouteCompilation(new GatewayProperties.RouteCompilation());
+		gatewayProperties.getRouteCompilation().setIncremental(false);
+		locator.getRoutes().collectList().block();
+		assertThat(counting.applied.get()).isEqualTo(5);
+	}
+
+	@Test
+	public void parallelCompilationKeepsDeclaredOrder() {
+		GatewayProperties gatewayProperties = new GatewayProperties();
+		gatewayProperties.getRouteCompilation().setParallelism(4);
+		List<RouteDefinition> definitions = new ArrayList<>();
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			definitions.add(routeDefinition("route" + i, "host" + i + ".example.com"));
+			ids.add("route" + i);
+		}
+		gatewayProperties.setRoutes(definitions);
+
+		RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(
+				new PropertiesRouteDefinitionLocator(gatewayProperties),
+				Arrays.asList(new HostRoutePredicateFactory()),
+				Arrays.asList(new CountingGatewayFilterFactory()), gatewayProperties);
+
+		assertThat(locator.getRoutes().collectList().block())
+				.extracting(Route::getId).containsExactlyElementsOf(ids);
+	}
+
+	@Test
+	public void parallelCompilationFailsWithRouteId() {
+		GatewayProperties gatewayProperties = new GatewayProperties();
+		gatewayProperties.getRouteCompilation().setParallelism(4);
+		RouteDefinition broken = routeDefinition("broken", "broken.example.com");
+		broken.setFilters(Arrays.asList(new FilterDefinition("DoesNotExist=")));
+		gatewayProperties.setRoutes(Arrays.asList(
+				routeDefinition("foo", "foo.example.com"), broken));
+
+		RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(
+				new PropertiesRouteDefinitionLocator(gatewayProperties),
+				Arrays.asList(new HostRoutePredicateFactory()),
+				Arrays.asList(new CountingGatewayFilterFactory()), gatewayProperties);
+
+		assertThatThrownBy(() -> locator.getRoutes().collectList().block())
+				.hasMessageContaining("broken")
+				.hasRootCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void fingerprintCoversAllDefinitionContent() {
+		RouteDefinition foo = routeDefinition("foo", "foo.example.com");
+		String fingerprint = RouteDefinitionRouteLocator.fingerprint(foo);
+		assertThat(RouteDefinitionRouteLocator.fingerprint(routeDefinition("foo", "foo.example.com")))
+				.isEqualTo(fingerprint);
+
+		foo.setOrder(1);
+		assertThat(RouteDefinitionRouteLocator.fingerprint(foo)).isNotEqualTo(fingerprint);
+
+		RouteDefinition filtered = routeDefinition("foo", "foo.example.com");
+		filtered.setFilters(Arrays.asList(new FilterDefinition("Counting=a")));
+		assertThat(RouteDefinitionRouteLocator.fingerprint(filtered)).isNotEqualTo(fingerprint);
+	}
+
+	private RouteDefinition routeDefinition(String id, String host) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(id);
+		definition.setUri(URI.create("http://" + host));
+		definition.setPredicates(Arrays.asList(new PredicateDefinition("Host=" + host)));
+		definition.setFilters(Arrays.asList(new FilterDefinition("Counting=")));
+		return definition;
+	}
+
 	private String getFilterClassName(GatewayFilter target) {
 		if (target instanceof OrderedGatewayFilter) {
 			return getFilterClassName(((OrderedGatewayFilter) target).getDelegate());
@@ -77,4 +174,15 @@ public class RouteDefinitionRouteLocatorTests {
 					9999);
 		}
 	}
+
+	static class CountingGatewayFilterFactory extends AbstractGatewayFilterFactory {
+
+		final AtomicInteger applied = new AtomicInteger();
+
+		@Override
+		public GatewayFilter apply(Object config) {
+			applied.incrementAndGet();
+			return (exchange, chain) -> chain.filter(exchange);
+		}
+	}
 }
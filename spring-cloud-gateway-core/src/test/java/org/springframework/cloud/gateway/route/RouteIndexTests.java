@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RouteIndexTests {
+
+	private final PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+
+	private final HostRoutePredicateFactory hostFactory = new HostRoutePredicateFactory();
+
+	@Test
+	public void literalPrefixWorks() {
+		assertThat(RouteIndex.literalPrefix("/foo/**")).isEqualTo("/foo");
+		assertThat(RouteIndex.literalPrefix("/foo/{id}/bar")).isEqualTo("/foo");
+		assertThat(RouteIndex.literalPrefix("/foo*")).isEqualTo("/foo");
+		assertThat(RouteIndex.literalPrefix("/foo/bar")).isEqualTo("/foo/bar");
+		assertThat(RouteIndex.literalPrefix("/**")).isEqualTo("");
+		assertThat(RouteIndex.literalPrefix("foo")).isNull();
+	}
+
+	@Test
+	public void candidatesKeepDeclaredOrder() {
+		Route foo = pathRoute("foo", "/foo/**");
+		Route any = Route.builder().id("any").uri("http://localhost")
+				.predicate(exchange -> true).build();
+		Route bar = pathRoute("bar", "/bar/{id}");
+		Route fooBar = pathRoute("foobar", "/foo/bar");
+		RouteIndex index = new RouteIndex(Arrays.asList(foo, any, bar, fooBar));
+
+		assertThat(candidates(index, "/foo/bar")).containsExactly(foo, any, fooBar);
+		assertThat(candidates(index, "/bar/1")).containsExactly(any, bar);
+		assertThat(candidates(index, "/baz")).containsExactly(any);
+	}
+
+	@Test
+	public void orAndNegateDisableIndexing() {
+		Route or = Route.builder().id("or").uri("http://localhost")
+				.predicate(factory.apply(c -> c.setPattern("/foo")))
+				.or(exchange -> true).build();
+		Route negate = Route.builder().id("negate").uri("http://localhost")
+				.predicate(factory.apply(c -> c.setPattern("/foo")))
+				.negate().build();
+		Route and = Route.builder().id("and").uri("http://localhost")
+				.predicate(exchange -> true)
+				.and(factory.apply(c -> c.setPattern("/foo"))).build();
+		RouteIndex index = new RouteIndex(Arrays.asList(or, negate, and));
+
+		assertThat(candidates(index, "/bar")).containsExactly(or, negate);
+	}
+
+	@Test
+	public void pathParametersFallBackToAllRoutes() {
+		Route foo = pathRoute("foo", "/foo/**");
+		Route bar = pathRoute("bar", "/bar/**");
+		RouteIndex index = new RouteIndex(Arrays.asList(foo, bar));
+
+		assertThat(candidates(index, "/bar;a=b/c")).containsExactly(foo, bar);
+	}
+
+	@Test
+	public void literalLabelSuffixWorks() {
+		assertThat(RouteIndex.literalLabelSuffix("**.example.org")).containsExactly("org", "example");
+		assertThat(RouteIndex.literalLabelSuffix("{sub}.example.org")).containsExactly("org", "example");
+		assertThat(RouteIndex.literalLabelSuffix("www.*.org")).containsExactly("org");
+		assertThat(RouteIndex.literalLabelSuffix("**")).isEmpty();
+	}
+
+	@Test
+	public void hostCandidatesWork() {
+		Route exact = hostRoute("exact", "www.example.org");
+		Route wildcard = hostRoute("wildcard", "**.example.org");
+		Route other = hostRoute("other", "**.other.org");
+		Route any = Route.builder().id("any").uri("http://localhost")
+				.predicate(exchange -> true).build();
+		RouteIndex index = new RouteIndex(Arrays.asList(exact, wildcard, other, any));
+
+		assertThat(candidates(index, "www.example.org", "/")).containsExactly(exact, wildcard, any);
+		assertThat(candidates(index, "a.b.example.org", "/")).containsExactly(wildcard, any);
+		assertThat(candidates(index, "example.org", "/")).containsExactly(wildcard, any);
+		assertThat(candidates(index, "www.unknown.org", "/")).containsExactly(any);
+	}
+
+	@Test
+	public void hostAndPathCandidatesIntersect() {
+		Route hostAndPath = Route.builder().id("hostAndPath").uri("http://localhost")
+				.predicate(hostFactory.apply(c -> c.setPattern("**.example.org")))
+				.and(factory.apply(c -> c.setPattern("/foo/**"))).build();
+		Route path = pathRoute("path", "/foo/**");
+		RouteIndex index = new RouteIndex(Arrays.asList(hostAndPath, path));
+
+		assertThat(candidates(index, "www.example.org", "/foo/bar")).containsExactly(hostAndPath, path);
+		assertThat(candidates(index, "www.other.org", "/foo/bar")).containsExactly(path);
+		assertThat(candidates(index, "www.example.org", "/bar")).isEmpty();
+	}
+
+	private Route hostRoute(String id, String pattern) {
+		return Route.builder().id(id).uri("http://localhost")
+				.predicate(hostFactory.apply(c -> c.setPattern(pattern))).build();
+	}
+
+	private List<Route> candidates(RouteIndex index, String host, String path) {
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost" + path)
+						.header(HttpHeaders.HOST, host).build());
+		return index.getCandidates(exchange);
+	}
+
+	private Route pathRoute(String id, String pattern) {
+		return Route.builder().id(id).uri("http://localhost")
+				.predicate(factory.apply(c -> c.setPattern(pattern))).build();
+	}
+
+	private List<Route> candidates(RouteIndex index, String path) {
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost" + path).build());
+		return index.getCandidates(exchange);
+	}
+}
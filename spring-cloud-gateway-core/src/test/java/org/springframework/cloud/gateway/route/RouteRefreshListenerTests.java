@@ -17,16 +17,26 @@
 
 package org.springframework.cloud.gateway.route;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.scheduler.VirtualTimeScheduler;
 
 import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
 import org.springframework.cloud.client.discovery.event.InstanceRegisteredEvent;
 import org.springframework.cloud.client.discovery.event.ParentHeartbeatEvent;
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -42,6 +52,22 @@ public class RouteRefreshListenerTests {
 		verify(publisher).publishEvent(any(RefreshRoutesEvent.class));
 	}
 
+	@Test
+	public void skipsContextRefreshOfLoadedContext() {
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		RouteRefreshListener listener = new RouteRefreshListener(publisher);
+		ApplicationContext context = mock(ApplicationContext.class);
+		ApplicationContext childContext = mock(ApplicationContext.class);
+		listener.skipContextRefresh(context);
+
+		listener.onApplicationEvent(new ContextRefreshedEvent(context));
+		verify(publisher, never()).publishEvent(any(RefreshRoutesEvent.class));
+
+		listener.onApplicationEvent(new ContextRefreshedEvent(childContext));
+		listener.onApplicationEvent(new ContextRefreshedEvent(context));
+		verify(publisher, times(2)).publishEvent(any(RefreshRoutesEvent.class));
+	}
+
 	@Test
 	public void onHeartbeatEvent() {
 		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
@@ -65,4 +91,56 @@ public class RouteRefreshListenerTests {
 
 		verify(publisher, times(2)).publishEvent(any(RefreshRoutesEvent.class));
 	}
+
+	@Test
+	public void onHeartbeatEventWithRefreshCondition() {
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		RouteRefreshListener listener = new RouteRefreshListener(publisher);
+		AtomicBoolean changed = new AtomicBoolean(false);
+		listener.setScheduler(Schedulers.immediate());
+		listener.setHeartbeatRefreshCondition(() -> Mono.fromSupplier(changed::get));
+
+		listener.onApplicationEvent(new HeartbeatEvent(this, 1L));
+		changed.set(true);
+		listener.onApplicationEvent(new HeartbeatEvent(this, 1L));
+		listener.onApplicationEvent(new HeartbeatEvent(this, 2L));
+
+		verify(publisher, times(1)).publishEvent(any(RefreshRoutesEvent.class));
+	}
+
+	@Test
+	public void debouncedRefreshesAreCoalesced() {
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		RouteRefreshListener listener = new RouteRefreshListener(publisher);
+		VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+		listener.setScheduler(scheduler);
+		listener.setDebounce(Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+		for (int i = 0; i < 50; i++) {
+			listener.onApplicationEvent(new InstanceRegisteredEvent<>(this, new Object()));
+			scheduler.advanceTimeBy(Duration.ofMillis(100));
+		}
+		verify(publisher, never()).publishEvent(any(RefreshRoutesEvent.class));
+
+		scheduler.advanceTimeBy(Duration.ofSeconds(1));
+		verify(publisher, times(1)).publishEvent(any(RefreshRoutesEvent.class));
+		assertThat(listener.getExecutedRefreshes()).isEqualTo(1);
+		assertThat(listener.getSuppressedRefreshes()).isEqualTo(49);
+	}
+
+	@Test
+	public void debouncedRefreshHonoursMaxDelay() {
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		RouteRefreshListener listener = new RouteRefreshListener(publisher);
+		VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+		listener.setScheduler(scheduler);
+		listener.setDebounce(Duration.ofSeconds(1), Duration.ofSeconds(3));
+
+		for (int i = 0; i < 16; i++) {
+			listener.onApplicationEvent(new InstanceRegisteredEvent<>(this, new Object()));
+			scheduler.advanceTimeBy(Duration.ofMillis(500));
+		}
+
+		verify(publisher, times(2)).publishEvent(any(RefreshRoutesEvent.class));
+	}
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationBindingCacheTests {
+
+	private final AtomicInteger created = new AtomicInteger();
+
+	private final Configurable<TestConfig> factory = new Configurable<TestConfig>() {
+		@Override
+		public Class<TestConfig> getConfigClass() {
+			return TestConfig.class;
+		}
+
+		@Override
+		public TestConfig newConfig() {
+			created.incrementAndGet();
+			return new TestConfig();
+		}
+	};
+
+	@Test
+	public void identicalArgumentsShareBoundConfig() {
+		ConfigurationBindingCache cache = new ConfigurationBindingCache(10);
+
+		TestConfig foo = bind(cache, Collections.singletonMap("value", "foo"));
+		assertThat(foo.getValue()).isEqualTo("foo");
+		assertThat(bind(cache, Collections.singletonMap("value", "foo"))).isSameAs(foo);
+		assertThat(this.created.get()).isEqualTo(1);
+
+		TestConfig bar = bind(cache, Collections.singletonMap("value", "bar"));
+		assertThat(bar).isNotSameAs(foo);
+		assertThat(bar.getValue()).isEqualTo("bar");
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.clear();
+		assertThat(bind(cache, Collections.singletonMap("value", "foo"))).isNotSameAs(foo);
+	}
+
+	@Test
+	public void fullCacheEvictsLeastRecentlyUsed() {
+		ConfigurationBindingCache cache = new ConfigurationBindingCache(2);
+		TestConfig foo = bind(cache, Collections.singletonMap("value", "foo"));
+		TestConfig bar = bind(cache, Collections.singletonMap("value", "bar"));
+		assertThat(bind(cache, Collections.singletonMap("value", "foo"))).isSameAs(foo);
+
+		TestConfig baz = bind(cache, Collections.singletonMap("value", "baz"));
+		assertThat(baz.getValue()).isEqualTo("baz");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(bind(cache, Collections.singletonMap("value", "baz"))).isSameAs(baz);
+		assertThat(bind(cache, Collections.singletonMap("value", "foo"))).isSameAs(foo);
+		assertThat(bind(cache, Collections.singletonMap("value", "bar"))).isNotSameAs(bar);
+	}
+
+	private TestConfig bind(ConfigurationBindingCache cache, Map<String, Object> properties) {
+		return (TestConfig) cache.bind(this.factory, properties, "", "test", null);
+	}
+
+	public static class TestConfig {
+
+		private String value;
+
+		public String getValue() {
+			return value;
+		}
+
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+}
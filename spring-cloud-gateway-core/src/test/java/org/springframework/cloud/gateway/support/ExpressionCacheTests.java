@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import org.junit.Test;
+import org.springframework.expression.Expression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpressionCacheTests {
+
+	@Test
+	public void expressionsAreReused() {
+		ExpressionCache cache = new ExpressionCache(10);
+
+		Expression expression = cache.getExpression("'lb://' + 'foo'");
+		assertThat(cache.getExpression("'lb://' + 'foo'")).isSameAs(expression);
+		assertThat(expression.getValue(String.class)).isEqualTo("lb://foo");
+
+		Expression template = cache.getTemplate("#{'lb://' + 'foo'}");
+		assertThat(cache.getTemplate("#{'lb://' + 'foo'}")).isSameAs(template);
+		assertThat(template.getValue(String.class)).isEqualTo("lb://foo");
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void fullCacheEvictsLeastRecentlyUsed() {
+		ExpressionCache cache = new ExpressionCache(2);
+		Expression one = cache.getExpression("1 + 1");
+		Expression template = cache.getTemplate("#{2 + 2}");
+		assertThat(cache.getExpression("1 + 1")).isSameAs(one);
+
+		Expression expression = cache.getExpression("3 + 3");
+		assertThat(expression.getValue(Integer.class)).isEqualTo(6);
+		assertThat(cache.getExpression("3 + 3")).isSameAs(expression);
+		assertThat(cache.getExpression("1 + 1")).isSameAs(one);
+		assertThat(cache.getTemplate("#{2 + 2}")).isNotSameAs(template);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void compiledExpressionsFallBackToInterpretation() {
+		ExpressionCache cache = new ExpressionCache(10);
+		Expression expression = cache.getExpression("length()");
+
+		for (int i = 0; i < 200; i++) {
+			assertThat(expression.getValue("foo", Integer.class)).isEqualTo(3);
+		}
+		assertThat(expression.getValue(new StringBuilder("foobar"), Integer.class)).isEqualTo(6);
+	}
+}
@@ -30,7 +30,6 @@ import org.springframework.boot.SpringBootConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.gateway.support.ShortcutConfigurable.ShortcutType;
 import org.springframework.context.annotation.Bean;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,14 +38,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest
 public class ShortcutConfigurableTests {
 
-	private SpelExpressionParser parser;
-
 	@Autowired
 	BeanFactory beanFactory;
 
 	@Test
 	public void testNormalizeDefaultTypeWithSpel() {
-		parser = new SpelExpressionParser();
 		ShortcutConfigurable shortcutConfigurable = new ShortcutConfigurable() {
 			@Override
 			public List<String> shortcutFieldOrder() {
@@ -56,7 +52,7 @@ public class ShortcutConfigurableTests {
 		Map<String, String> args = new HashMap<>();
 		args.put("bean", "#{@foo}");
 		args.put("arg1", "val1");
-		Map<String, Object> map = ShortcutType.DEFAULT.normalize(args, shortcutConfigurable, parser, this.beanFactory);
+		Map<String, Object> map = ShortcutType.DEFAULT.normalize(args, shortcutConfigurable, this.beanFactory);
 		assertThat(map).isNotNull()
 				.containsEntry("bean", 42)
 				.containsEntry("arg1", "val1");
@@ -65,7 +61,6 @@ public class ShortcutConfigurableTests {
 	@Test
 	@SuppressWarnings("unchecked")
 	public void testNormalizeGatherListTypeWithSpel() {
-		parser = new SpelExpressionParser();
 		ShortcutConfigurable shortcutConfigurable = new ShortcutConfigurable() {
 			@Override
 			public List<String> shortcutFieldOrder() {
@@ -81,7 +76,7 @@ public class ShortcutConfigurableTests {
 		args.put("1", "#{@foo}");
 		args.put("2", "val1");
 		args.put("3", "val2");
-		Map<String, Object> map = ShortcutType.GATHER_LIST.normalize(args, shortcutConfigurable, parser, this.beanFactory);
+		Map<String, Object> map = ShortcutType.GATHER_LIST.normalize(args, shortcutConfigurable, this.beanFactory);
 		assertThat(map).isNotNull().containsKey("values");
 		assertThat((List)map.get("values"))
 				.containsExactly(42, "val1", "val2");
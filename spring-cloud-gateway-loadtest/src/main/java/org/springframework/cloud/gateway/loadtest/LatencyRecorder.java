@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 记录请求延迟并计算分位数
+ * Records request latencies in nanoseconds and computes percentiles.
+ */
+public class LatencyRecorder {
+
+	private long[] latencies;
+
+	private int count;
+
+	public LatencyRecorder(int expected) {
+		this.latencies = new long[Math.max(expected, 16)];
+	}
+
+	public synchronized void record(long nanos) {
+		if (this.count == this.latencies.length) {
+			this.latencies = Arrays.copyOf(this.latencies, this.latencies.length * 2);
+		}
+		this.latencies[this.count++] = nanos;
+	}
+
+	public synchronized int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * 获取多个分位数的延迟
+	 * @param quantiles 分位数，例如 0.99
+	 * @return 对应的延迟，单位纳秒，没有记录时为 0
+	 */
+	public synchronized long[] percentiles(double... quantiles) {
+		long[] sorted = Arrays.copyOf(this.latencies, this.count);
+		Arrays.sort(sorted);
+		long[] result = new long[quantiles.length];
+		for (int i = 0; i < quantiles.length; i++) {
+			if (sorted.length > 0) {
+				// nearest rank
+				int rank = (int) Math.ceil(quantiles[i] * sorted.length);
+				result[i] = sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+			}
+		}
+		return result;
+	}
+}
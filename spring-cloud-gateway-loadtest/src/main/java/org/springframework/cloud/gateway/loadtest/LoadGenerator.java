@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.NettyPipeline;
+import reactor.ipc.netty.http.client.HttpClient;
+import reactor.ipc.netty.resources.PoolResources;
+
+/**
+ * 异步的负载生成器，以固定的并发数发送请求并记录每个请求的延迟
+ * Closed-loop asynchronous load generator: keeps a fixed number of requests
+ * in flight and records the latency of every completed request.
+ */
+public class LoadGenerator {
+
+	private static final Log log = LogFactory.getLog(LoadGenerator.class);
+
+	private final LoadTestProperties properties;
+
+	private final String baseUrl;
+
+	private final PoolResources pool;
+
+	private final HttpClient client;
+
+	private final byte[] largeBody;
+
+	public LoadGenerator(LoadTestProperties properties, int gatewayPort) {
+		this.properties = properties;
+		this.baseUrl = "127.0.0.1:" + gatewayPort;
+		this.pool = PoolResources.fixed("loadtest", properties.getConcurrency());
+		this.client = HttpClient.create(options -> options.poolResources(this.pool));
+		this.largeBody = new byte[properties.getLargeBodySize()];
+		ThreadLocalRandom.current().nextBytes(this.largeBody);
+	}
+
+	/**
+	 * 执行一个场景
+	 * @param scenario
+	 * @param requests 请求数量
+	 * @param recorder 延迟记录器，为 null 时不记录
+	 * @return 失败的请求数量
+	 */
+	public long run(Scenario scenario, int requests, LatencyRecorder recorder) {
+		LongAdder errors = new LongAdder();
+		Flux.range(0, requests)
+				.flatMap(i -> timed(scenario, recorder)
+						.onErrorResume(e -> {
+							errors.increment();
+							if (log.isDebugEnabled()) {
+								log.debug("Request failed in scenario " + scenario, e);
+							}
+							return Mono.empty();
+						}), this.properties.getConcurrency())
+				.blockLast();
+		return errors.sum();
+	}
+
+	public void dispose() {
+		this.pool.dispose();
+	}
+
+	private Mono<Void> timed(Scenario scenario, LatencyRecorder recorder) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return execute(scenario).doOnSuccess(v -> {
+				if (recorder != null) {
+					recorder.record(System.nanoTime() - start);
+				}
+			});
+		});
+	}
+
+	private Mono<Void> execute(Scenario scenario) {
+		switch (scenario) {
+		case LARGE_BODY:
+			return this.client.post("http://" + this.baseUrl + scenario.getPath(), request -> request
+					.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(this.largeBody.length))
+					.sendByteArray(Mono.just(this.largeBody)))
+					.flatMap(response -> response.receive().then());
+		case WEBSOCKET:
+			int messages = this.properties.getWebsocketMessages();
+			return this.client.ws("ws://" + this.baseUrl + scenario.getPath())
+					.flatMap(response -> response.receiveWebsocket((in, out) -> out
+							.options(NettyPipeline.SendOptions::flushOnEach)
+							.sendString(Flux.range(0, messages).map(i -> "message " + i))
+							.then(in.receive().take(messages).then())));
+		default:
+			return this.client.get("http://" + this.baseUrl + scenario.getPath())
+					.flatMap(response -> response.receive().then());
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * 端到端的负载测试，在同一个 JVM 中启动上游服务桩、网关及负载生成器
+ * End-to-end load test. Starts an embedded upstream, the gateway with one route
+ * per {@link Scenario} and a load generator in a single JVM, runs the scenarios
+ * and exits. Everything is bound to the loopback interface.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestApplication {
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	public UpstreamStub upstreamStub(LoadTestProperties properties) {
+		return new UpstreamStub(properties);
+	}
+
+	@Bean
+	public RouteLocator loadTestRoutes(RouteLocatorBuilder builder, UpstreamStub upstream) {
+		String uri = "http://127.0.0.1:" + upstream.getPort();
+		//@formatter:off
+		return builder.routes()
+				.route("plain", r -> r.path("/plain/**")
+						.uri(uri))
+				.route("filters", r -> r.path("/filters/**")
+						.filters(f -> {
+							for (int i = 0; i < 10; i++) {
+								f.addRequestHeader("X-Load-Test-Request-" + i, String.valueOf(i));
+								f.addResponseHeader("X-Load-Test-Response-" + i, String.valueOf(i));
+							}
+							return f;
+						})
+						.uri(uri))
+				.route("large_body", r -> r.path("/large/**")
+						.uri(uri))
+				.route("sse", r -> r.path("/sse/**")
+						.uri(uri))
+				.route("websocket", r -> r.path("/ws/**")
+						.uri("ws://127.0.0.1:" + upstream.getPort()))
+				.build();
+		//@formatter:on
+	}
+
+	@Bean
+	public LoadTestRunner loadTestRunner(LoadTestProperties properties, Environment environment) {
+		return new LoadTestRunner(properties, environment);
+	}
+
+	public static void main(String[] args) {
+		System.exit(SpringApplication.exit(SpringApplication.run(LoadTestApplication.class, args)));
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * 负载测试的配置
+ * Configuration of the load test scenarios and of the upstream stub.
+ */
+@ConfigurationProperties("loadtest")
+public class LoadTestProperties {
+
+	/** Scenarios to run, in order. */
+	private List<Scenario> scenarios = new ArrayList<>(Arrays.asList(Scenario.values()));
+
+	/** Number of measured requests per scenario. */
+	private int requests = 50000;
+
+	/** Number of requests sent before measuring each scenario. */
+	private int warmupRequests = 10000;
+
+	/** Maximum number of requests in flight. */
+	private int concurrency = 64;
+
+	/** Request body size of the large body scenario, in bytes. */
+	private int largeBodySize = 1024 * 1024;
+
+	/** Number of events the upstream sends per server-sent events request. */
+	private int sseEvents = 20;
+
+	/** Number of messages echoed per websocket session. */
+	private int websocketMessages = 10;
+
+	private Upstream upstream = new Upstream();
+
+	public List<Scenario> getScenarios() {
+		return scenarios;
+	}
+
+	public void setScenarios(List<Scenario> scenarios) {
+		this.scenarios = scenarios;
+	}
+
+	public int getRequests() {
+		return requests;
+	}
+
+	public void setRequests(int requests) {
+		this.requests = requests;
+	}
+
+	public int getWarmupRequests() {
+		return warmupRequests;
+	}
+
+	public void setWarmupRequests(int warmupRequests) {
+		this.warmupRequests = warmupRequests;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public int getLargeBodySize() {
+		return largeBodySize;
+	}
+
+	public void setLargeBodySize(int largeBodySize) {
+		this.largeBodySize = largeBodySize;
+	}
+
+	public int getSseEvents() {
+		return sseEvents;
+	}
+
+	public void setSseEvents(int sseEvents) {
+		this.sseEvents = sseEvents;
+	}
+
+	public int getWebsocketMessages() {
+		return websocketMessages;
+	}
+
+	public void setWebsocketMessages(int websocketMessages) {
+		this.websocketMessages = websocketMessages;
+	}
+
+	public Upstream getUpstream() {
+		return upstream;
+	}
+
+	public void setUpstream(Upstream upstream) {
+		this.upstream = upstream;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this)
+				.append("scenarios", scenarios)
+				.append("requests", requests)
+				.append("warmupRequests", warmupRequests)
+				.append("concurrency", concurrency)
+				.append("largeBodySize", largeBodySize)
+				.append("sseEvents", sseEvents)
+				.append("websocketMessages", websocketMessages)
+				.append("upstream", upstream)
+				.toString();
+	}
+
+	public static class Upstream {
+
+		/** Distribution of the upstream response latency. */
+		private LatencyDistribution latencyDistribution = LatencyDistribution.FIXED;
+
+		/** Mean upstream response latency. */
+		private Duration latency = Duration.ZERO;
+
+		/** Minimum response payload size, in bytes. */
+		private int minPayloadSize = 128;
+
+		/** Maximum response payload size, in bytes. Sizes are uniformly distributed. */
+		private int maxPayloadSize = 1024;
+
+		public LatencyDistribution getLatencyDistribution() {
+			return latencyDistribution;
+		}
+
+		public void setLatencyDistribution(LatencyDistribution latencyDistribution) {
+			this.latencyDistribution = latencyDistribution;
+		}
+
+		public Duration getLatency() {
+			return latency;
+		}
+
+		public void setLatency(Duration latency) {
+			this.latency = latency;
+		}
+
+		public int getMinPayloadSize() {
+			return minPayloadSize;
+		}
+
+		public void setMinPayloadSize(int minPayloadSize) {
+			this.minPayloadSize = minPayloadSize;
+		}
+
+		public int getMaxPayloadSize() {
+			return maxPayloadSize;
+		}
+
+		public void setMaxPayloadSize(int maxPayloadSize) {
+			this.maxPayloadSize = maxPayloadSize;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this)
+					.append("latencyDistribution", latencyDistribution)
+					.append("latency", latency)
+					.append("minPayloadSize", minPayloadSize)
+					.append("maxPayloadSize", maxPayloadSize)
+					.toString();
+		}
+	}
+
+	public enum LatencyDistribution {
+		/** Every response takes the mean latency. */
+		FIXED,
+		/** Latencies are uniformly distributed between zero and twice the mean. */
+		UNIFORM,
+		/** Latencies are exponentially distributed around the mean. */
+		EXPONENTIAL
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+
+/**
+ * 网关启动后依次执行各个场景并输出结果
+ * Runs the configured scenarios against the started gateway and prints a report.
+ */
+public class LoadTestRunner implements ApplicationRunner {
+
+	private static final Log log = LogFactory.getLog(LoadTestRunner.class);
+
+	private final LoadTestProperties properties;
+
+	private final Environment environment;
+
+	public LoadTestRunner(LoadTestProperties properties, Environment environment) {
+		this.properties = properties;
+		this.environment = environment;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		int port = this.environment.getRequiredProperty("local.server.port", Integer.class);
+		if (log.isInfoEnabled()) {
+			log.info("Running load test against gateway on port " + port + ", " + this.properties);
+		}
+
+		LoadGenerator generator = new LoadGenerator(this.properties, port);
+		List<ScenarioResult> results = new ArrayList<>();
+		try {
+			for (Scenario scenario : this.properties.getScenarios()) {
+				results.add(run(generator, scenario));
+			}
+		}
+		finally {
+			generator.dispose();
+		}
+
+		System.out.println(ScenarioResult.HEADER);
+		results.forEach(System.out::println);
+	}
+
+	private ScenarioResult run(LoadGenerator generator, Scenario scenario) {
+		if (log.isInfoEnabled()) {
+			log.info("Warming up " + scenario);
+		}
+		generator.run(scenario, this.properties.getWarmupRequests(), null);
+
+		if (log.isInfoEnabled()) {
+			log.info("Measuring " + scenario);
+		}
+		int requests = this.properties.getRequests();
+		LatencyRecorder recorder = new LatencyRecorder(requests);
+		System.gc();
+		long allocatedBefore = Allocations.allocatedBytes();
+		long start = System.nanoTime();
+		long errors = generator.run(scenario, requests, recorder);
+		long elapsed = System.nanoTime() - start;
+		long allocatedAfter = Allocations.allocatedBytes();
+
+		long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+		ScenarioResult result = new ScenarioResult(scenario, requests, errors, elapsed, recorder, allocated);
+		if (log.isInfoEnabled()) {
+			log.info(result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+/**
+ * 负载测试的场景，每个场景对应一个网关路由
+ * Load test scenarios, each of them is served by its own gateway route.
+ */
+public enum Scenario {
+
+	/** GET proxied without any route filters. */
+	PLAIN("/plain/get"),
+
+	/** GET proxied through a route with 20 filters. */
+	FILTERS("/filters/get"),
+
+	/** POST of a large body echoed by the upstream. */
+	LARGE_BODY("/large/post"),
+
+	/** Server-sent events streamed by the upstream. */
+	SSE("/sse/events"),
+
+	/** Websocket session echoing a number of messages. */
+	WEBSOCKET("/ws/echo");
+
+	private final String path;
+
+	Scenario(String path) {
+		this.path = path;
+	}
+
+	public String getPath() {
+		return path;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 场景的测试结果
+ * Throughput, latency percentiles and allocation rate of one scenario.
+ */
+public class ScenarioResult {
+
+	static final String HEADER = String.format("%-12s %10s %8s %12s %10s %10s %10s %12s %14s",
+			"scenario", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)",
+			"alloc(MB/s)", "alloc(KB/req)");
+
+	private final Scenario scenario;
+
+	private final int requests;
+
+	private final long errors;
+
+	private final long elapsedNanos;
+
+	private final long[] percentiles;
+
+	private final long allocatedBytes;
+
+	public ScenarioResult(Scenario scenario, int requests, long errors, long elapsedNanos,
+						  LatencyRecorder recorder, long allocatedBytes) {
+		this.scenario = scenario;
+		this.requests = requests;
+		this.errors = errors;
+		this.elapsedNanos = elapsedNanos;
+		this.percentiles = recorder.percentiles(0.5, 0.99, 0.999);
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public Scenario getScenario() {
+		return scenario;
+	}
+
+	public double getThroughput() {
+		return (this.requests - this.errors) / seconds();
+	}
+
+	public long getP50() {
+		return this.percentiles[0];
+	}
+
+	public long getP99() {
+		return this.percentiles[1];
+	}
+
+	public long getP999() {
+		return this.percentiles[2];
+	}
+
+	/**
+	 * @return 每秒分配的字节数，无法统计时为负数
+	 */
+	public double getAllocationRate() {
+		return this.allocatedBytes < 0 ? -1 : this.allocatedBytes / seconds();
+	}
+
+	private double seconds() {
+		return this.elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+	}
+
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-12s %10d %8d %12.1f %10.3f %10.3f %10.3f %12.1f %14.1f",
+				this.scenario, this.requests, this.errors, getThroughput(),
+				millis(getP50()), millis(getP99()), millis(getP999()),
+				getAllocationRate() / (1024 * 1024),
+				this.allocatedBytes < 0 ? -1 : this.allocatedBytes / 1024.0 / this.requests);
+	}
+}
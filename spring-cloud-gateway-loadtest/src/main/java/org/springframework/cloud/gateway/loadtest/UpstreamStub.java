@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.NettyPipeline;
+import reactor.ipc.netty.http.server.HttpServer;
+import reactor.ipc.netty.http.server.HttpServerRequest;
+import reactor.ipc.netty.http.server.HttpServerResponse;
+
+/**
+ * 嵌入式的上游服务桩，响应延迟及响应体大小可配置
+ * Embedded reactor-netty upstream for the load test. Response latencies and
+ * payload sizes follow the configured distributions.
+ * <ul>
+ * <li>websocket upgrades echo every message</li>
+ * <li>{@code /sse/**} streams server-sent events</li>
+ * <li>{@code /large/**} echoes the request body</li>
+ * <li>everything else returns a random payload</li>
+ * </ul>
+ */
+public class UpstreamStub {
+
+	private static final Log log = LogFactory.getLog(UpstreamStub.class);
+
+	private final LoadTestProperties properties;
+
+	private final LoadTestProperties.Upstream upstream;
+
+	/**
+	 * 响应体内容，按需截取
+	 */
+	private final byte[] payload;
+
+	private NettyContext context;
+
+	public UpstreamStub(LoadTestProperties properties) {
+		this.properties = properties;
+		this.upstream = properties.getUpstream();
+		this.payload = new byte[Math.max(this.upstream.getMaxPayloadSize(), 0)];
+		ThreadLocalRandom.current().nextBytes(this.payload);
+	}
+
+	public void start() {
+		this.context = HttpServer.create("127.0.0.1", 0)
+				.newHandler(this::handle)
+				.block();
+		if (log.isInfoEnabled()) {
+			log.info("Upstream stub listening on " + this.context.address() + ", " + this.upstream);
+		}
+	}
+
+	public void stop() {
+		if (this.context != null) {
+			this.context.dispose();
+			this.context = null;
+		}
+	}
+
+	public int getPort() {
+		return this.context.address().getPort();
+	}
+
+	private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+		if (request.isWebsocket()) {
+			return response.sendWebsocket((in, out) -> out.send(in.receive().retain()));
+		}
+		String uri = request.uri();
+		if (uri.startsWith("/sse")) {
+			int events = this.properties.getSseEvents();
+			return delay().then(response
+					.header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+					.options(NettyPipeline.SendOptions::flushOnEach)
+					.sendString(Flux.range(0, events).map(i -> "id: " + i + "\ndata: event " + i + "\n\n"))
+					.then());
+		}
+		if (uri.startsWith("/large")) {
+			return delay().then(response.send(request.receive().retain()).then());
+		}
+		int size = nextPayloadSize();
+		return delay().then(response
+				.header(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream")
+				.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(size))
+				.send(Mono.just(Unpooled.wrappedBuffer(this.payload, 0, size)))
+				.then());
+	}
+
+	private Mono<Void> delay() {
+		long nanos = nextLatencyNanos();
+		if (nanos <= 0) {
+			return Mono.empty();
+		}
+		return Mono.delay(Duration.ofNanos(nanos)).then();
+	}
+
+	long nextLatencyNanos() {
+		long mean = this.upstream.getLatency().toNanos();
+		if (mean <= 0) {
+			return 0;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		switch (this.upstream.getLatencyDistribution()) {
+		case UNIFORM:
+			return random.nextLong(2 * mean + 1);
+		case EXPONENTIAL:
+			return (long) (-mean * Math.log(1 - random.nextDouble()));
+		default:
+			return mean;
+		}
+	}
+
+	int nextPayloadSize() {
+		int min = Math.max(Math.min(this.upstream.getMinPayloadSize(), this.payload.length), 0);
+		return ThreadLocalRandom.current().nextInt(min, this.payload.length + 1);
+	}
+}